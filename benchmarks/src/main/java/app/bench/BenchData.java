@@ -0,0 +1,149 @@
+package app.bench;
+
+import app.dao.ProductDAO;
+import app.dao.SalesDAO;
+import app.dao.SchemaMigrator;
+import app.model.Product;
+import app.model.Sale;
+import app.util.DBUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BenchData.java
+ * -----------------------
+ * Generates the products, sales, CSV files and SQLite databases the
+ * benchmarks run against.
+ * <p>
+ * Data is derived from a fixed seed, so two runs with the same sizes measure
+ * the same database. Product IDs are 1..n; sales are spread over the last two
+ * years and over every product.
+ */
+public final class BenchData {
+
+    private static final long SEED = 42;
+
+    private static final String[] ADJECTIVES = {
+            "Steel", "Plastic", "Cotton", "Wooden", "Copper", "Glass", "Rubber", "Leather",
+            "Electric", "Cordless", "Mini", "Heavy", "Organic", "Premium", "Classic", "Digital"
+    };
+    private static final String[] NOUNS = {
+            "Hammer", "Drill", "Bucket", "Shirt", "Kettle", "Lamp", "Notebook", "Pen",
+            "Charger", "Bottle", "Towel", "Brush", "Spanner", "Battery", "Cable", "Mug",
+            "Soap", "Rice", "Tea", "Biscuit"
+    };
+    private static final String[] CATEGORIES = {
+            "Hardware", "Kitchen", "Stationery", "Electronics", "Clothing", "Grocery",
+            "Cleaning", "Personal Care", "Garden", "Toys", "Sports", "Automotive"
+    };
+
+    private BenchData() {
+    }
+
+    /**
+     * Returns {@code count} products with IDs 1..count.
+     */
+    public static List<Product> products(int count) {
+        Random random = new Random(SEED);
+        List<Product> products = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + (100 + random.nextInt(900));
+            products.add(new Product(id, name, random.nextInt(200),
+                    Math.round(random.nextDouble() * 100_000) / 100.0,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    String.format("890%010d", id)));
+        }
+        return products;
+    }
+
+    /**
+     * Returns {@code count} sales of the given products, oldest first.
+     */
+    public static List<Sale> sales(List<Product> products, int count) {
+        Random random = new Random(SEED + 1);
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        long spanMinutes = 2L * 365 * 24 * 60;
+        List<Sale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product p = products.get(random.nextInt(products.size()));
+            int quantity = 1 + random.nextInt(5);
+            sales.add(new Sale(p.getId(), p.getName(), quantity, quantity * p.getPrice(),
+                    start.plusMinutes(spanMinutes * i / Math.max(1, count)), p.getCategory()));
+        }
+        return sales;
+    }
+
+    /**
+     * Writes products as an importable CSV (ID,Name,Quantity,Price,Category,Barcode).
+     */
+    public static void writeProductsCsv(Path file, List<Product> products) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("ID,Name,Quantity,Price,Category,Barcode\n");
+            for (Product p : products) {
+                writer.write(String.format("%d,%s,%d,%.2f,%s,%s\n",
+                        p.getId(), p.getName(), p.getQuantity(), p.getPrice(), p.getCategory(), p.getBarcode()));
+            }
+        }
+    }
+
+    /**
+     * Creates a database in a new temp file, fills it and makes it the
+     * application's database (DBUtil.useDatabase).
+     *
+     * @return the database file; pass it to {@link #deleteDatabase(Path)} afterwards
+     */
+    public static Path createDatabase(int productCount, int saleCount) throws IOException, SQLException {
+        Path file = Files.createTempFile("inventory-bench-", ".db");
+        DBUtil.useDatabase("jdbc:sqlite:" + file.toAbsolutePath());
+        if (!SchemaMigrator.migrate()) {
+            throw new SQLException("Could not create the schema in " + file);
+        }
+
+        List<Product> products = products(productCount);
+        String sql = "INSERT INTO products (id, name, quantity, price, category, barcode) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Product p : products) {
+                    stmt.setInt(1, p.getId());
+                    stmt.setString(2, p.getName());
+                    stmt.setInt(3, p.getQuantity());
+                    stmt.setDouble(4, p.getPrice());
+                    stmt.setString(5, p.getCategory());
+                    stmt.setString(6, p.getBarcode());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            List<Sale> sales = sales(products, saleCount);
+            for (int from = 0; from < sales.size(); from += 10_000) {
+                SalesDAO.recordSales(conn, sales.subList(from, Math.min(from + 10_000, sales.size())));
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        ProductDAO.refreshCatalog(); // benchmarks see the data just written
+        return file;
+    }
+
+    /**
+     * Closes the database and removes its files.
+     */
+    public static void deleteDatabase(Path file) throws IOException {
+        DBUtil.shutdown();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(file + suffix));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package app.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Path;
+
+/**
+ * DatabaseState.java
+ * -----------------------
+ * A generated database shared by every benchmark of one trial.
+ * <p>
+ * Size it from the command line, e.g. {@code -p products=100000 -p sales=1000000}.
+ * The database lives in a temp file and is deleted when the trial ends.
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+    @Param("10000")
+    public int products;
+
+    @Param("100000")
+    public int sales;
+
+    public Path file;
+
+    @Setup(Level.Trial)
+    public void create() throws Exception {
+        file = BenchData.createDatabase(products, sales);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        BenchData.deleteDatabase(file);
+    }
+}
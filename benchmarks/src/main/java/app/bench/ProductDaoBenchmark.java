@@ -0,0 +1,82 @@
+package app.bench;
+
+import app.dao.ProductDAO;
+import app.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product reads, CSV import and CSV export.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDaoBenchmark {
+
+    /**
+     * The DAO and the CSV files, created once the database exists.
+     */
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        ProductDAO productDAO;
+        Path importCsv;
+        Path exportCsv;
+
+        @Setup(Level.Trial)
+        public void create(DatabaseState db) throws Exception {
+            productDAO = new ProductDAO();
+            importCsv = Files.createTempFile("inventory-bench-import-", ".csv");
+            exportCsv = Files.createTempFile("inventory-bench-export-", ".csv");
+            BenchData.writeProductsCsv(importCsv, BenchData.products(db.products));
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws Exception {
+            Files.deleteIfExists(importCsv);
+            Files.deleteIfExists(Path.of(ProductDAO.getErrorReportPath(importCsv.toString())));
+            Files.deleteIfExists(exportCsv);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Product getProductById(DatabaseState db, Fixture fixture) {
+        return fixture.productDAO.getProductById(1 + ThreadLocalRandom.current().nextInt(db.products));
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts(DatabaseState db) {
+        return ProductDAO.getAllProducts();
+    }
+
+    /**
+     * Upserts every product again (same IDs), so the table size stays fixed.
+     */
+    @Benchmark
+    public int importFromCSV(Fixture fixture) {
+        return fixture.productDAO.importFromCSV(fixture.importCsv.toString());
+    }
+
+    @Benchmark
+    public boolean exportProductsToCSV(Fixture fixture) {
+        return fixture.productDAO.exportProductsToCSV(fixture.exportCsv.toString());
+    }
+}
@@ -0,0 +1,83 @@
+package app.bench;
+
+import app.model.Product;
+import app.service.ProductFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "View All Products" filter, in memory (no database needed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFilterBenchmark {
+
+    @Param("10000")
+    public int products;
+
+    private List<Product> productList;
+
+    @Setup(Level.Trial)
+    public void create() {
+        productList = BenchData.products(products);
+    }
+
+    /**
+     * A built filter and the text typed into it.
+     */
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({"h", "ham", "hammer 4", "kitchen"})
+        public String keyword;
+
+        @Param({ProductFilter.SORT_NAME_ASC, ProductFilter.SORT_QUANTITY_DESC})
+        public String sort;
+
+        ProductFilter filter;
+
+        @Setup(Level.Trial)
+        public void create(ProductFilterBenchmark benchmark) {
+            filter = new ProductFilter(benchmark.productList);
+            filter.filter("", sort); // sort order is computed once per option, as in the window
+        }
+    }
+
+    /**
+     * Types the keyword one character at a time, as the debounced text field
+     * would see it, then clears the field.
+     */
+    @Benchmark
+    public void typeKeyword(Query query, Blackhole bh) {
+        for (int i = 1; i <= query.keyword.length(); i++) {
+            bh.consume(query.filter.filter(query.keyword.substring(0, i), query.sort));
+        }
+        bh.consume(query.filter.filter("", query.sort));
+    }
+
+    /**
+     * Building the index when the window opens.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProductFilter buildIndex() {
+        return new ProductFilter(productList);
+    }
+}
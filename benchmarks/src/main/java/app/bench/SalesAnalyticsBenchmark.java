@@ -0,0 +1,77 @@
+package app.bench;
+
+import app.model.Sale;
+import app.model.SalesAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every aggregate the analytics screens ask SalesAnalytics for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesAnalyticsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        SalesAnalytics analytics;
+
+        @Setup(Level.Trial)
+        public void create(DatabaseState db) {
+            analytics = new SalesAnalytics();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Period {
+        @Param({"daily", "weekly", "monthly"})
+        public String period;
+    }
+
+    @Benchmark
+    public double getTotalRevenue(Fixture fixture) {
+        return fixture.analytics.getTotalRevenue();
+    }
+
+    @Benchmark
+    public List<Sale> getBestSellingProducts(Fixture fixture) {
+        return fixture.analytics.getBestSellingProducts(10);
+    }
+
+    @Benchmark
+    public Map<String, Double> getSalesByCategory(Fixture fixture) {
+        return fixture.analytics.getSalesByCategory();
+    }
+
+    @Benchmark
+    public Map<String, Integer> getSoldQuantityByCategory(Fixture fixture) {
+        return fixture.analytics.getSoldQuantityByCategory();
+    }
+
+    @Benchmark
+    public List<Sale> getProductSales(Fixture fixture) {
+        return fixture.analytics.getProductSales();
+    }
+
+    @Benchmark
+    public Map<String, Double> getSalesOverTime(Fixture fixture, Period period) {
+        return fixture.analytics.getSalesOverTime(period.period);
+    }
+}
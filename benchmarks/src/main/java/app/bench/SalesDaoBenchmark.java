@@ -0,0 +1,57 @@
+package app.bench;
+
+import app.dao.SalesDAO;
+import app.model.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending to and reading back the sales ledger.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesDaoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        SalesDAO salesDAO;
+
+        @Setup(Level.Trial)
+        public void create(DatabaseState db) {
+            salesDAO = new SalesDAO();
+        }
+    }
+
+    /**
+     * One sale of a random product; the ledger grows during the run, as it does in a shop.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void recordSale(DatabaseState db, Fixture fixture) {
+        int productId = 1 + ThreadLocalRandom.current().nextInt(db.products);
+        fixture.salesDAO.recordSale(new Sale(productId, "Bench Product " + productId, 1, 9.99,
+                LocalDateTime.now(), "Hardware"));
+    }
+
+    @Benchmark
+    public List<Sale> getAllSales(Fixture fixture) {
+        return fixture.salesDAO.getAllSales();
+    }
+}
@@ -1,5 +1,9 @@
 package app;
 
+import app.dao.SchemaMigrator;
+import app.util.AnalyticsSnapshot;
+import app.util.AppEvents;
+import app.util.EdtMonitor;
 import app.view.LoginWindow;
 import javax.swing.*;
 
@@ -10,6 +14,21 @@ import javax.swing.*;
  */
 public class MainApp {
     public static void main(String[] args) {
+        // Flight recording of the app's own events, when -Dinventory.jfr=<file> is given
+        AppEvents.startRecordingIfRequested();
+
+        // Time every UI event and log the ones that freeze the window
+        EdtMonitor.install();
+
+        // Create or upgrade the database schema before any window touches it
+        if (!SchemaMigrator.migrate()) {
+            JOptionPane.showMessageDialog(null, "❌ Could not set up the database. See the console for details.");
+            System.exit(1);
+        }
+
+        // Reports read a periodically refreshed copy of the database, away from the tills
+        AnalyticsSnapshot.start();
+
         // Start the application from login screen
         SwingUtilities.invokeLater(LoginWindow::new);
     }
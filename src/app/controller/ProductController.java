@@ -1,24 +1,34 @@
 package app.controller;
 
 import app.dao.ProductDAO;
-import app.dao.SalesDAO;
+import app.dao.ProductSearchDAO;
 import app.model.InventoryStats;
 import app.model.Product;
+import app.service.CheckoutService;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 
-import app.model.Sale;
+import app.model.BillItem;
 import app.view.AddProductWindow;
 import app.view.ViewAllProductsWindow;
 import app.view.SearchProductWindow;
 import app.view.UpdateProductWindow;
 import app.view.DeleteProductWindow;
 import app.view.ExportCSVWindow;
+import app.view.UiTask;
+import app.util.AppEvents;
+import app.util.CsvReader;
 
 import javax.swing.*;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
 
 /**
  * ProductController.java
@@ -27,7 +37,11 @@ import java.util.List;
  */
 public class ProductController {
 
+    // Rows between progress reports during CSV export
+    private static final int EXPORT_PROGRESS_ROWS = 1000;
+
     private ProductDAO productDAO;
+    private ProductSearchDAO productSearchDAO;
 
     // Constructor
     public ProductController() {
@@ -86,18 +100,18 @@ public class ProductController {
      * Exports the list of products to a CSV file.
      * This method is called when the user clicks the export button.
      * It internally handles the file path (currently hardcoded).
+     * The export runs in the background; the result is shown when it finishes.
      */
     public static void exportProductsToCSV() {
         // Hardcoding the file path for simplicity (can be customized)
-        ProductController controller = new ProductController();
-        boolean success = controller.exportProductsToCSV("exports/products.csv");
-
-        // Show success or failure message
-        if (success) {
-            JOptionPane.showMessageDialog(null, "✅ Products exported to products.csv");
-        } else {
-            JOptionPane.showMessageDialog(null, "❌ Export failed.");
-        }
+        UiTask.run(() -> new ProductController().exportProductsToCSV("exports/products.csv"), success -> {
+            // Show success or failure message
+            if (success) {
+                JOptionPane.showMessageDialog(null, "✅ Products exported to products.csv");
+            } else {
+                JOptionPane.showMessageDialog(null, "❌ Export failed.");
+            }
+        });
     }
 
     /**
@@ -106,24 +120,57 @@ public class ProductController {
      * @return true if successful, false otherwise
      */
     public boolean exportProductsToCSV(String filePath) {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        return exportProductsToCSV(filePath, null);
+    }
+
+    /**
+     * Exports the products to CSV, reporting the number of rows written every
+     * {@link #EXPORT_PROGRESS_ROWS} rows. The callback may throw
+     * CancellationException to stop; the partial file is then deleted and the
+     * exception rethrown.
+     *
+     * @param filePath   The file path where the CSV will be saved.
+     * @param onProgress receives rows written so far, may be null
+     * @return true if successful, false otherwise
+     */
+    public boolean exportProductsToCSV(String filePath, IntConsumer onProgress) {
+        int[] written = {0};
+        AppEvents.CsvTransferEvent event = AppEvents.CsvTransferEvent.begin("export", filePath);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
             writer.write("ID,Name,Quantity,Price\n"); // CSV Header
 
-            for (Product p : getAllProducts()) {
-                writer.write(String.format("%d,%s,%d,%.2f\n",
-                        p.getId(),
-                        p.getName().replace(",", ""),  // Remove commas from names to avoid CSV issues
-                        p.getQuantity(),
-                        p.getPrice()));
+            ProductDAO.streamProducts(ProductDAO.DEFAULT_FETCH_SIZE, p -> {
+                if (++written[0] % EXPORT_PROGRESS_ROWS == 0 && onProgress != null) {
+                    onProgress.accept(written[0]);
+                }
+                try {
+                    writer.write(String.format("%d,%s,%d,%.2f\n",
+                            p.getId(),
+                            CsvReader.escape(p.getName()),
+                            p.getQuantity(),
+                            p.getPrice()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (onProgress != null) {
+                onProgress.accept(written[0]);
             }
-
-            System.out.println("✅ Products exported successfully to CSV.");
-            return true;
-        } catch (IOException e) {
+        } catch (CancellationException e) {
+            new File(filePath).delete();
+            System.out.println("ℹ️ Product export cancelled after " + written[0] + " rows.");
+            event.finish(written[0], 0, "cancelled");
+            throw e;
+        } catch (IOException | UncheckedIOException | SQLException e) {
             System.out.println("❌ Failed to export products to CSV.");
             e.printStackTrace();
+            event.finish(written[0], 0, "failed");
             return false;
         }
+        event.finish(written[0], 0, "completed");
+        System.out.println("✅ Products exported successfully to CSV.");
+        return true;
     }
 
     // Methods for handling products
@@ -143,6 +190,14 @@ public class ProductController {
         return productDAO.getProductById(productId);
     }
 
+    // Method to search products by name/category (full-text, ranked)
+    public ProductSearchDAO.SearchPage searchProducts(String query, int offset, int limit) {
+        if (productSearchDAO == null) {
+            productSearchDAO = new ProductSearchDAO();
+        }
+        return productSearchDAO.search(query, offset, limit);
+    }
+
     // Method to update a product
     public boolean updateProduct(Product updated) {
         return productDAO.updateProduct(updated);
@@ -210,39 +265,36 @@ public class ProductController {
      * Wrapper to call import method from DAO.
      */
     public int importProductsFromCSV(String filePath) {
-        ProductDAO dao = new ProductDAO();
-        return dao.importFromCSV(filePath);
+        return productDAO.importFromCSV(filePath);
+    }
+
+    /**
+     * Wrapper to call the batched import with progress reporting.
+     * Failures and cancellation are thrown; batches committed before them stay.
+     *
+     * @param listener receives rows imported and rows/sec after each committed batch
+     */
+    public int importProductsFromCSV(String filePath, ProductDAO.ImportListener listener)
+            throws IOException, SQLException {
+        return productDAO.importFromCSV(filePath, ProductDAO.DEFAULT_IMPORT_CHUNK_SIZE, listener);
     }
 
-    private SalesDAO salesDAO = new SalesDAO();
+    private final CheckoutService checkoutService = new CheckoutService();
 
     /**
-     * Handles sale: reduce stock and save sale info.
+     * Handles sale: reduces stock and saves the sale in one transaction.
+     *
+     * @return true if the sale was committed
      */
     public boolean recordSale(int productId, int quantity) {
         Product product = productDAO.getProductById(productId);
-
-        if (product != null && quantity > 0 && product.getQuantity() >= quantity) {
-            boolean reduced = productDAO.reduceStock(productId, quantity);
-            if (reduced) {
-                double total = quantity * product.getPrice();
-
-                // Create Sale with all required fields
-                Sale sale = new Sale(
-                        productId,
-                        product.getName(),
-                        quantity,
-                        total,
-                        java.time.LocalDateTime.now(), // capture current date-time
-                        product.getCategory()           // include category
-                );
-
-                salesDAO.recordSale(sale);
-                return true;
-            }
+        if (product == null || quantity <= 0) {
+            return false;
         }
 
-        return false;
+        CheckoutService.Result result = checkoutService.checkout(List.of(
+                new BillItem(productId, product.getName(), quantity, product.getPrice(), product.getCategory())));
+        return result.committed();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,384 @@
+package app.dao;
+
+import app.model.Product;
+import app.util.DBUtil;
+import app.util.IntObjectMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * ProductCatalog.java
+ * --------------------------------
+ * In-memory copy of the products table, shared by every ProductDAO.
+ * <p>
+ * Why we need this:
+ * - Billing, record-sale, view-all and dashboard screens all read the full
+ *   catalog, and every scan in billing looks a product up by ID
+ * <p>
+ * The table is loaded once (lazily, on first use) into an {@link IntObjectMap}
+ * keyed by product ID, so lookups never box the ID and never touch SQLite.
+ * A second hash index maps barcode / SKU to ID for scan-driven billing.
+ * ProductDAO writes through to it after each successful database write, so it
+ * stays coherent with this process's changes. Writes made by other processes
+ * are picked up by {@link #invalidate()} or by the targeted {@link #reload(int...)}
+ * that checkout uses.
+ * <p>
+ * A load reads the table into fresh maps without holding the cache lock and
+ * swaps them in afterwards, so checkouts writing through are not held up by
+ * the SELECT. A load that raced a write-through is discarded and repeated.
+ * <p>
+ * Callers always receive copies; mutating a returned Product does not change the cache.
+ */
+public final class ProductCatalog {
+
+    private static final ProductCatalog INSTANCE = new ProductCatalog();
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public record Stats(long hits, long misses, long loads, int size) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ProductCatalog{size=%d, hits=%d, misses=%d, loads=%d, hitRate=%.1f%%}",
+                    size, hits, misses, loads, hitRate() * 100);
+        }
+    }
+
+    private static final int MAX_UNLOCKED_LOADS = 3;
+
+    /**
+     * Maps read by one load, not yet visible to readers.
+     */
+    private record Contents(IntObjectMap<Product> byId, Map<String, Integer> idByBarcode) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock loadLock = new ReentrantLock();   // one load at a time
+    private IntObjectMap<Product> byId = new IntObjectMap<>(1024);
+    private Map<String, Integer> idByBarcode = new HashMap<>(1024);
+    private volatile boolean loaded;
+    private volatile int loadedGeneration = -1;
+    private volatile int changes;   // write-throughs and invalidations so far; written under the write lock
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    private ProductCatalog() {
+    }
+
+    static ProductCatalog get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a copy of the product, or null if no product has this ID.
+     */
+    Product findById(int id) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Product p = byId.get(id);
+            if (p == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return copy(p);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the product with this barcode, or null if none has it.
+     * Never loads the catalog, so it is safe on the EDT: until the catalog is
+     * loaded ({@link #isLoaded()}) every barcode resolves to null.
+     */
+    Product findLoadedByBarcode(String barcode) {
+        lock.readLock().lock();
+        try {
+            if (!isFresh()) {
+                return null;
+            }
+            Integer id = idByBarcode.get(barcode);
+            Product p = id == null ? null : byId.get(id);
+            if (p == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return copy(p);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the catalog of the current database is in memory
+     */
+    boolean isLoaded() {
+        return isFresh();
+    }
+
+    /**
+     * Loads the catalog now if it is not loaded yet.
+     *
+     * @return true if the catalog is loaded afterwards
+     */
+    boolean preload() {
+        ensureLoaded();
+        return isFresh();
+    }
+
+    /**
+     * Returns copies of all products, ordered by ID.
+     */
+    List<Product> findAll() {
+        return findMatching(p -> true);
+    }
+
+    /**
+     * Returns copies of the products accepted by {@code filter}, ordered by ID.
+     */
+    List<Product> findMatching(Predicate<Product> filter) {
+        ensureLoaded();
+        List<Product> result;
+        lock.readLock().lock();
+        try {
+            result = new ArrayList<>(byId.size());
+            byId.forEachValue(p -> {
+                if (filter.test(p)) {
+                    result.add(copy(p));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingInt(Product::getId));
+        return result;
+    }
+
+    // --- write-through hooks called by ProductDAO after a successful write ---
+
+    void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            if (!loaded) {
+                return; // next read loads it from the database anyway
+            }
+            Product stored = copy(product);
+            stored.setBarcode(ProductDAO.normalizeBarcode(product.getBarcode()));
+            Product old = byId.put(stored.getId(), stored);
+            if (old != null && old.getBarcode() != null) {
+                idByBarcode.remove(old.getBarcode(), old.getId());
+            }
+            if (stored.getBarcode() != null) {
+                idByBarcode.put(stored.getBarcode(), stored.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void setQuantity(int id, int quantity) {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            if (!loaded) {
+                return;
+            }
+            Product p = byId.get(id);
+            if (p != null) {
+                p.setQuantity(quantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            if (!loaded) {
+                return;
+            }
+            Product old = byId.remove(id);
+            if (old != null && old.getBarcode() != null) {
+                idByBarcode.remove(old.getBarcode(), old.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            byId.clear();
+            idByBarcode.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the given products from the database (e.g. after a checkout).
+     */
+    void reload(int... ids) {
+        if (!loaded) {
+            return;
+        }
+        String sql = "SELECT * FROM products WHERE id = ?";
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int id : ids) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        put(ProductDAO.readProduct(rs));
+                    } else {
+                        remove(id);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to refresh cached products; reloading catalog.");
+            e.printStackTrace();
+            invalidate();
+        }
+    }
+
+    /**
+     * Drops the cached catalog; the next read loads it again.
+     */
+    void invalidate() {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            loaded = false;
+            byId.clear();
+            idByBarcode.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Stats stats() {
+        lock.readLock().lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), loads.sum(), byId.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isFresh() {
+        return loaded && loadedGeneration == DBUtil.getDatabaseGeneration();
+    }
+
+    private void ensureLoaded() {
+        if (isFresh()) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            for (int attempt = 1; !isFresh(); attempt++) {
+                int generation = DBUtil.getDatabaseGeneration();
+                int changesBefore = changes;
+                if (attempt > MAX_UNLOCKED_LOADS) {
+                    // Write-throughs keep racing the load; read under the lock so none is missed
+                    lock.writeLock().lock();
+                    try {
+                        Contents contents = readTable();
+                        if (contents == null) {
+                            return;
+                        }
+                        install(contents, generation);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    continue;
+                }
+
+                Contents contents = readTable();
+                if (contents == null) {
+                    return;
+                }
+                lock.writeLock().lock();
+                try {
+                    // A write-through during the read may be missing from it; read again
+                    if (changes == changesBefore) {
+                        install(contents, generation);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the whole products table into new maps.
+     *
+     * @return the maps, or null if the read failed
+     */
+    private static Contents readTable() {
+        IntObjectMap<Product> newById = new IntObjectMap<>(1024);
+        Map<String, Integer> newIdByBarcode = new HashMap<>(1024);
+        String sql = "SELECT * FROM products";
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Product p = ProductDAO.readProduct(rs);
+                newById.put(p.getId(), p);
+                if (p.getBarcode() != null) {
+                    newIdByBarcode.put(p.getBarcode(), p.getId());
+                }
+            }
+            return new Contents(newById, newIdByBarcode);
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to load product catalog.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Makes freshly read maps the catalog. Caller holds the write lock.
+     */
+    private void install(Contents contents, int generation) {
+        byId = contents.byId();
+        idByBarcode = contents.idByBarcode();
+        loaded = true;
+        loadedGeneration = generation;
+        loads.increment();
+    }
+
+    private static Product copy(Product p) {
+        return new Product(p.getId(), p.getName(), p.getQuantity(), p.getPrice(), p.getCategory(), p.getBarcode());
+    }
+}
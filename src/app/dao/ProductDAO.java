@@ -1,21 +1,28 @@
 package app.dao;
 
+import app.model.BillItem;
 import app.model.Product;
+import app.util.AppEvents;
+import app.util.CsvReader;
 import app.util.DBUtil;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 /**
  * ProductDAO.java
  * --------------------------------
  * This class handles all database operations related to products using SQLite.
- * It connects through DBUtil and creates the product table if it does not exist.
+ * It connects through DBUtil; the product table is created by SchemaMigrator.
  *
  * Author: Saurabh Pandey
  * Date: 04 May 2025
@@ -23,42 +30,43 @@ import java.util.List;
 
 public class ProductDAO {
 
-    // Constructor — auto-creates table if not exists
-    public ProductDAO() {
-        createTableIfNotExists();
+    /**
+     * Creates the 'products' table if it does not already exist, plus the
+     * barcode column and its unique index. Run by {@link SchemaMigrator}.
+     */
+    static void createTable(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS products (
+                    id INTEGER PRIMARY KEY,
+                    name TEXT NOT NULL,
+                    quantity INTEGER NOT NULL,
+                    price REAL NOT NULL,
+                    category TEXT NOT NULL,
+                    barcode TEXT
+                )""");
+        addBarcodeColumnIfMissing(stmt);
+        // Unique, but any number of products may have no barcode (NULLs are distinct)
+        stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_products_barcode ON products(barcode)");
     }
 
     /**
-     * Create the 'products' table if it does not already exist.
+     * Tables created before barcodes existed get the column added in place.
      */
-    private void createTableIfNotExists() {
-        String sql = """
-    CREATE TABLE IF NOT EXISTS products (
-        id INTEGER PRIMARY KEY,
-        name TEXT NOT NULL,
-        quantity INTEGER NOT NULL,
-        price REAL NOT NULL,
-        category TEXT NOT NULL
-    );
-""";
-
-
-
-        try (Connection conn = DBUtil.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("✅ Table 'products' verified/created.");
-        } catch (SQLException e) {
-            System.out.println("❌ Failed to create 'products' table.");
-            e.printStackTrace();
+    private static void addBarcodeColumnIfMissing(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('products') WHERE name = 'barcode'")) {
+            if (rs.next()) {
+                return;
+            }
         }
+        stmt.execute("ALTER TABLE products ADD COLUMN barcode TEXT");
+        System.out.println("✅ Added 'barcode' column to products.");
     }
 
     /**
      * Add a new product to the database.
      */
     public void addProduct(Product product) {
-        String sql = "INSERT INTO products (id, name, quantity, price,category) VALUES (?, ?, ?, ?,?)";
+        String sql = "INSERT INTO products (id, name, quantity, price, category, barcode) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -68,8 +76,10 @@ public class ProductDAO {
             stmt.setInt(3, product.getQuantity());
             stmt.setDouble(4, product.getPrice());
             stmt.setString(5, product.getCategory());
+            stmt.setString(6, normalizeBarcode(product.getBarcode()));
 
             stmt.executeUpdate();
+            ProductCatalog.get().put(product);
             System.out.println("✅ Product added to database: " + product.getName());
 
         } catch (SQLException e) {
@@ -79,63 +89,152 @@ public class ProductDAO {
     }
 
     /**
-     * Retrieve all products from the database.
+     * Retrieve all products, ordered by ID.
+     * Served from the in-memory {@link ProductCatalog}; the table is read once.
      */
     public static List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products";
+        return ProductCatalog.get().findAll();
+    }
 
-        try (Connection conn = DBUtil.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Product p = new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("quantity"),
-                        rs.getDouble("price"),
-                        rs.getString("category")
-                );
-                products.add(p);
-            }
+    /**
+     * Rows fetched per round trip by {@link #streamProducts(int, Consumer)}
+     * when the caller has no preference.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Returns up to {@code limit} products with an ID greater than {@code afterId},
+     * ordered by ID. Pass 0 for the first page and the last ID of a page for the
+     * next one; the primary key index makes every page cost the same.
+     */
+    public static List<Product> getProductsPage(int afterId, int limit) {
+        List<Product> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        String sql = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(readProduct(rs));
+                }
+            }
         } catch (SQLException e) {
-            System.out.println("❌ Failed to fetch products from database.");
+            System.out.println("❌ Failed to fetch products after ID: " + afterId);
             e.printStackTrace();
         }
-        return products;
+        return page;
     }
 
     /**
-     * Find a product by ID from the database.
+     * Reads every product from the database in ID order and hands each one to
+     * {@code consumer} without collecting them, so memory use does not grow with
+     * the table. Bypasses the in-memory catalog.
+     *
+     * @param fetchSize rows fetched per round trip
+     * @return number of products passed to the consumer
+     * @throws SQLException if the read fails part-way; callers such as exports
+     *                      must not treat the products seen so far as complete
      */
-    public Product getProductById(int id) {
-        String sql = "SELECT * FROM products WHERE id = ?";
-        Product p = null;
+    public static int streamProducts(int fetchSize, Consumer<Product> consumer) throws SQLException {
+        String sql = "SELECT * FROM products ORDER BY id";
+        int count = 0;
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                p = new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("quantity"),
-                        rs.getDouble("price"),
-                        rs.getString("category")
-                );
+            stmt.setFetchSize(Math.max(1, fetchSize));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(readProduct(rs));
+                    count++;
+                }
             }
+        }
+        return count;
+    }
 
-        } catch (SQLException e) {
-            System.out.println("❌ Error while fetching product with ID: " + id);
-            e.printStackTrace();
+    static Product readProduct(ResultSet rs) throws SQLException {
+        return new Product(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getInt("quantity"),
+                rs.getDouble("price"),
+                rs.getString("category"),
+                rs.getString("barcode")
+        );
+    }
+
+    /**
+     * Trims a barcode; blank means "no barcode" and is stored as NULL.
+     */
+    public static String normalizeBarcode(String barcode) {
+        if (barcode == null) {
+            return null;
         }
+        String trimmed = barcode.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
 
-        return p;
+    /**
+     * Resolves a scanned barcode / SKU from the in-memory catalog's hash index,
+     * without touching the database. Never loads the catalog, so it is safe to
+     * call on the EDT; while {@link #isCatalogLoaded()} is false it returns null.
+     *
+     * @return a copy of the product, or null if no loaded product has this barcode
+     */
+    public Product getLoadedProductByBarcode(String barcode) {
+        String code = normalizeBarcode(barcode);
+        return code == null ? null : ProductCatalog.get().findLoadedByBarcode(code);
+    }
+
+    /**
+     * @return true if the in-memory catalog is loaded for the current database
+     */
+    public static boolean isCatalogLoaded() {
+        return ProductCatalog.get().isLoaded();
+    }
+
+    /**
+     * Loads the in-memory catalog now (e.g. on a background thread when a
+     * billing window opens) so the first scan does not pay for it.
+     *
+     * @return true if the catalog is loaded, false if reading it failed
+     */
+    public static boolean preloadCatalog() {
+        return ProductCatalog.get().preload();
+    }
+
+    /**
+     * Find a product by ID. Served from the in-memory {@link ProductCatalog}.
+     */
+    public Product getProductById(int id) {
+        return ProductCatalog.get().findById(id);
+    }
+
+    /**
+     * Drops the in-memory catalog so the next read loads it from the database.
+     * Use after another process (e.g. a second terminal) may have changed products.
+     */
+    public static void refreshCatalog() {
+        ProductCatalog.get().invalidate();
+    }
+
+    /**
+     * Re-reads the given products into the in-memory catalog. Call after a
+     * transaction that changed them on a caller-owned connection has committed.
+     */
+    public static void refreshCachedProducts(int... productIds) {
+        ProductCatalog.get().reload(productIds);
+    }
+
+    /**
+     * @return hit/miss counters of the in-memory catalog
+     */
+    public static ProductCatalog.Stats getCatalogStats() {
+        return ProductCatalog.get().stats();
     }
 
     /**
@@ -149,6 +248,7 @@ public class ProductDAO {
 
             stmt.setInt(1, id);
             int affected = stmt.executeUpdate();
+            ProductCatalog.get().remove(id);
 
             return affected > 0;
 
@@ -167,7 +267,7 @@ public class ProductDAO {
      * @return true if updated successfully, false otherwise
      */
     public static boolean updateProduct(Product product) {
-        String sql = "UPDATE products SET name = ?, quantity = ?, price = ? WHERE id = ?";
+        String sql = "UPDATE products SET name = ?, quantity = ?, price = ?, category = ?, barcode = ? WHERE id = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -176,9 +276,13 @@ public class ProductDAO {
             stmt.setInt(2, product.getQuantity());
             stmt.setDouble(3, product.getPrice());
             stmt.setString(4, product.getCategory());
-            stmt.setInt(4, product.getId());
+            stmt.setString(5, normalizeBarcode(product.getBarcode()));
+            stmt.setInt(6, product.getId());
 
             int affected = stmt.executeUpdate();
+            if (affected > 0) {
+                ProductCatalog.get().put(product);
+            }
             return affected > 0;
 
         } catch (SQLException e) {
@@ -190,25 +294,35 @@ public class ProductDAO {
     }
 
     public boolean exportProductsToCSV(String filePath) {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("ID,Name,Quantity,Price,Category\n"); // CSV Header
-
-            for (Product p : getAllProducts()) {
-                writer.write(String.format("%d,%s,%d,%.2f,%s\n",
-                        p.getId(),
-                        p.getName().replace(",", ""),
-                        p.getQuantity(),
-                        p.getPrice(),
-                        p.getCategory()));
-            }
-
-            System.out.println("✅ Products exported successfully to CSV.");
-            return true;
-        } catch (IOException e) {
+        AppEvents.CsvTransferEvent event = AppEvents.CsvTransferEvent.begin("export", filePath);
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(filePath))) {
+            writer.write("ID,Name,Quantity,Price,Category,Barcode\n"); // CSV Header (re-importable)
+
+            // Streamed straight from the table, so large catalogs export in constant memory
+            rows = streamProducts(DEFAULT_FETCH_SIZE, p -> {
+                try {
+                    writer.write(String.format("%d,%s,%d,%.2f,%s,%s\n",
+                            p.getId(),
+                            CsvReader.escape(p.getName()),
+                            p.getQuantity(),
+                            p.getPrice(),
+                            CsvReader.escape(p.getCategory()),
+                            CsvReader.escape(p.getBarcode())));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+        } catch (IOException | UncheckedIOException | SQLException e) {
             System.out.println("❌ Failed to export products to CSV.");
             e.printStackTrace();
+            event.finish(rows, 0, "failed");
             return false;
         }
+        event.finish(rows, 0, "completed");
+        System.out.println("✅ Products exported successfully to CSV.");
+        return true;
     }
 
     /**
@@ -217,16 +331,7 @@ public class ProductDAO {
      * @return List of low stock products
      */
     public List<Product> getLowStockProducts() {
-        List<Product> allProducts = getAllProducts();
-        List<Product> lowStock = new ArrayList<>();
-
-        for (Product p : allProducts) {
-            if (p.getQuantity() <= 5) {
-                lowStock.add(p);
-            }
-        }
-
-        return lowStock;
+        return ProductCatalog.get().findMatching(p -> p.getQuantity() <= 5);
     }
     /**
      * Updates the quantity of a product by its ID.
@@ -241,6 +346,9 @@ public class ProductDAO {
             stmt.setInt(2, id);
 
             int affected = stmt.executeUpdate();
+            if (affected > 0) {
+                ProductCatalog.get().setQuantity(id, newQuantity);
+            }
             return affected > 0;
 
         } catch (SQLException e) {
@@ -250,51 +358,327 @@ public class ProductDAO {
         }
     }
     /**
-     * Imports products from a CSV file.
-     * Assumes the CSV has header: ID,Name,Quantity,Price
+     * Receives progress updates while a CSV import is running.
+     * Called on the importing thread after every committed batch.
      */
+    public interface ImportListener {
+        /**
+         * @param rowsImported  rows written so far
+         * @param rowsRejected  rows rejected so far (see the error report)
+         * @param rowsPerSecond average throughput since the import started
+         */
+        void onChunk(int rowsImported, int rowsRejected, double rowsPerSecond);
+    }
+
+    // Insert, or overwrite the existing row when the ID is already taken
+    private static final String UPSERT_SQL = """
+            INSERT INTO products (id, name, quantity, price, category, barcode) VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT(id) DO UPDATE SET
+                name = excluded.name,
+                quantity = excluded.quantity,
+                price = excluded.price,
+                category = excluded.category,
+                barcode = COALESCE(excluded.barcode, products.barcode)
+            """;
+
+    public static final int DEFAULT_IMPORT_CHUNK_SIZE = 1000;
+
     /**
      * Imports products from a CSV file.
-     * Assumes the CSV has header: ID,Name,Quantity,Price,Category
+     * Assumes the CSV has header: ID,Name,Quantity,Price,Category[,Barcode]
+     *
+     * @return number of rows imported, or 0 if the import failed (batches
+     * committed before the failure are kept)
      */
     public int importFromCSV(String filePath) {
-        int importCount = 0;
+        try {
+            return importFromCSV(filePath, DEFAULT_IMPORT_CHUNK_SIZE, null);
+        } catch (IOException | SQLException e) {
+            return 0; // already reported
+        }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine(); // Skip header
+    /**
+     * Returns where rejected rows of an import of {@code filePath} are written.
+     */
+    public static String getErrorReportPath(String filePath) {
+        return filePath + ".errors.csv";
+    }
 
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
+    /**
+     * Imports products from a CSV file.
+     * The file is parsed in parallel by {@link CsvReader} (RFC 4180 quoting supported)
+     * and rows are written in file order. Rows are upserted (existing IDs are
+     * overwritten) in batches of {@code chunkSize}. Each batch is one short
+     * transaction on the writer, which is released in between, so checkouts
+     * keep going while a large file is imported. A failed or cancelled import
+     * therefore keeps the batches committed before it; since rows are upserted,
+     * importing the same file again is safe.
+     * Rows that cannot be parsed are written to {@link #getErrorReportPath(String)}.
+     * Assumes the CSV has header: ID,Name,Quantity,Price,Category[,Barcode]
+     *
+     * @param filePath  CSV file to read
+     * @param chunkSize rows per batch (and per transaction)
+     * @param listener  optional progress callback, may be null; it may throw
+     *                  CancellationException to stop after the current batch,
+     *                  which is then rethrown
+     * @return number of rows imported
+     * @throws IOException  if the file cannot be read
+     * @throws SQLException if a batch cannot be written
+     */
+    public int importFromCSV(String filePath, int chunkSize, ImportListener listener) throws IOException, SQLException {
+        List<CsvReader.Rejected> rejected = new ArrayList<>();
+        long start = System.nanoTime();
+        AppEvents.CsvTransferEvent event = AppEvents.CsvTransferEvent.begin("import", filePath);
+        ProductBatchWriter writer = new ProductBatchWriter(Math.max(1, chunkSize), rejected, listener, start);
+
+        try {
+            CsvReader.read(Path.of(filePath), true, ProductDAO::mapCsvRow, writer);
+            writer.flush();
+        } catch (CancellationException e) {
+            System.out.println("ℹ️ Import cancelled; " + writer.written + " products imported before it stay.");
+            event.finish(writer.written, rejected.size(), "cancelled");
+            throw e;
+        } catch (IOException | SQLException | RuntimeException e) {
+            SQLException cause = e instanceof UncheckedSQLException u ? u.getCause() : null;
+            System.out.println("❌ Failed to import products; " + writer.written + " imported before the error stay.");
+            (cause != null ? cause : e).printStackTrace();
+            event.finish(writer.written, rejected.size(), "failed");
+            if (cause != null) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            if (writer.written > 0) {
+                ProductCatalog.get().invalidate(); // upserts touched arbitrary rows
+            }
+        }
 
-                if (parts.length != 5) continue; // ✅ Expect 5 fields now
+        int importCount = writer.written;
+        System.out.printf("✅ Imported %d products (%d rows rejected) at %.0f rows/sec.%n",
+                importCount, rejected.size(), rowsPerSecond(importCount, start));
+        event.finish(importCount, rejected.size(), "completed");
+        writeErrorReport(getErrorReportPath(filePath), rejected);
+        return importCount;
+    }
 
-                int id = Integer.parseInt(parts[0].trim());
-                String name = parts[1].trim();
-                int qty = Integer.parseInt(parts[2].trim());
-                double price = Double.parseDouble(parts[3].trim());
-                String category = parts[4].trim(); // ✅ New field
+    /**
+     * Converts one CSV row into a Product; throws to reject the row.
+     */
+    private static Product mapCsvRow(CsvReader.Row row) {
+        if (row.size() != 5 && row.size() != 6) { // Expect 5 fields, or 6 with barcode
+            throw new IllegalArgumentException("Expected 5 or 6 fields but found " + row.size());
+        }
+        String name = row.getString(1);
+        String category = row.getString(4);
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Product name is empty");
+        }
+        String barcode = row.size() == 6 ? normalizeBarcode(row.getString(5)) : null;
+        return new Product(row.getInt(0), name, row.getInt(2), row.getDouble(3), category, barcode);
+    }
 
-                Product p = new Product(id, name, qty, price, category); // ✅ Use updated constructor
-                addProduct(p); // Save to DB
-                importCount++;
+    /**
+     * Writes rejected rows (line, reason, raw row) next to the imported file.
+     * Removes a stale report when nothing was rejected.
+     */
+    private static void writeErrorReport(String reportPath, List<CsvReader.Rejected> rejected) {
+        try {
+            if (rejected.isEmpty()) {
+                Files.deleteIfExists(Path.of(reportPath));
+                return;
             }
-
-            System.out.println("✅ Imported " + importCount + " products.");
-        } catch (IOException | NumberFormatException e) {
-            System.out.println("❌ Failed to import products.");
+            try (FileWriter writer = new FileWriter(reportPath)) {
+                writer.write("Line,Reason,Row\n");
+                for (CsvReader.Rejected r : rejected) {
+                    writer.write(r.lineNumber() + "," + CsvReader.escape(r.reason()) + "," + CsvReader.escape(r.text()) + "\n");
+                }
+            }
+            System.out.println("ℹ️ " + rejected.size() + " rejected rows written to " + reportPath);
+        } catch (IOException e) {
+            System.out.println("❌ Failed to write import error report.");
             e.printStackTrace();
         }
+    }
 
-        return importCount;
+    /**
+     * Receives parsed chunks in file order and upserts them in batches, each
+     * in its own transaction on a freshly borrowed writer.
+     */
+    private static class ProductBatchWriter implements Consumer<CsvReader.Chunk<Product>> {
+        private final int batchSize;
+        private final List<Product> pending;
+        private final List<CsvReader.Rejected> rejected;
+        private final ImportListener listener;
+        private final long startNanos;
+        private int written;
+
+        ProductBatchWriter(int batchSize, List<CsvReader.Rejected> rejected,
+                           ImportListener listener, long startNanos) {
+            this.batchSize = batchSize;
+            this.pending = new ArrayList<>(Math.min(batchSize, 10_000));
+            this.rejected = rejected;
+            this.listener = listener;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void accept(CsvReader.Chunk<Product> chunk) {
+            rejected.addAll(chunk.rejected());
+            try {
+                for (Product p : chunk.rows()) {
+                    pending.add(p);
+                    if (pending.size() == batchSize) {
+                        flush();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSQLException(e);
+            }
+        }
+
+        void flush() throws SQLException {
+            if (!pending.isEmpty()) {
+                try (Connection conn = DBUtil.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+                    conn.setAutoCommit(false);
+                    try {
+                        for (Product p : pending) {
+                            stmt.setInt(1, p.getId());
+                            stmt.setString(2, p.getName());
+                            stmt.setInt(3, p.getQuantity());
+                            stmt.setDouble(4, p.getPrice());
+                            stmt.setString(5, p.getCategory());
+                            stmt.setString(6, p.getBarcode());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+                written += pending.size();
+                pending.clear();
+            }
+            if (listener != null) {
+                listener.onChunk(written, rejected.size(), rowsPerSecond(written, startNanos));
+            }
+        }
     }
 
+    /**
+     * Carries a SQLException out of the CSV writer callback.
+     */
+    private static class UncheckedSQLException extends RuntimeException {
+        UncheckedSQLException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    private static double rowsPerSecond(int rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    /**
+     * Returned by {@link #decrementStock(int, int)} when the product is missing
+     * or does not have enough stock.
+     */
+    public static final int INSUFFICIENT_STOCK = -1;
+
+    // Check and decrement in one statement, so concurrent checkouts cannot oversell
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET quantity = quantity - ? WHERE id = ? AND quantity >= ? RETURNING quantity";
+
+    /**
+     * Reduces stock only if enough is available. Safe under concurrent checkouts
+     * from several threads or processes: the check and the decrement happen in a
+     * single conditional UPDATE.
+     *
+     * @return true if the stock was reduced
+     */
     public boolean reduceStock(int productId, int quantity) {
-        Product p = getProductById(productId);
-        if (p != null && p.getQuantity() >= quantity) {
-            p.setQuantity(p.getQuantity() - quantity);
-            return updateProduct(p); // reuse update
+        return decrementStock(productId, quantity) != INSUFFICIENT_STOCK;
+    }
+
+    /**
+     * Atomically subtracts {@code quantity} from a product's stock.
+     *
+     * @return the new quantity, or {@link #INSUFFICIENT_STOCK} if the product
+     * does not exist or has fewer than {@code quantity} units
+     */
+    public int decrementStock(int productId, int quantity) {
+        if (quantity <= 0) {
+            return INSUFFICIENT_STOCK;
+        }
+        try (Connection conn = DBUtil.getConnection()) {
+            int remaining = decrementStock(conn, productId, quantity);
+            if (remaining != INSUFFICIENT_STOCK) {
+                ProductCatalog.get().setQuantity(productId, remaining);
+            }
+            return remaining;
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to reduce stock for product ID: " + productId);
+            e.printStackTrace();
+            return INSUFFICIENT_STOCK;
+        }
+    }
+
+    /**
+     * Conditional decrement on a caller-supplied connection, so it can take part
+     * in a larger transaction (for example a whole bill).
+     *
+     * @return the new quantity, or {@link #INSUFFICIENT_STOCK}
+     */
+    public static int decrementStock(Connection conn, int productId, int quantity) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DECREMENT_STOCK_SQL)) {
+            stmt.setInt(1, quantity);
+            stmt.setInt(2, productId);
+            stmt.setInt(3, quantity);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : INSUFFICIENT_STOCK;
+            }
+        }
+    }
+
+    /**
+     * Adds a conditional decrement for every line to one JDBC batch and runs it
+     * on the caller's connection. The caller owns the transaction and must roll
+     * back when a line comes back short.
+     *
+     * @param items bill lines (product id and quantity)
+     * @return index of the first line without enough stock, or -1 if every line was applied
+     */
+    public static int decrementStockBatch(Connection conn, List<BillItem> items) throws SQLException {
+        String sql = "UPDATE products SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < items.size(); i++) {
+                BillItem item = items.get(i);
+                if (item.getQuantity() <= 0) {
+                    return i;
+                }
+                stmt.setInt(1, item.getQuantity());
+                stmt.setInt(2, item.getProductId());
+                stmt.setInt(3, item.getQuantity());
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    return i;
+                }
+            }
+            return -1;
         }
-        return false;
     }
 
     /**
@@ -307,6 +691,7 @@ public class ProductDAO {
         try (Connection conn = DBUtil.getConnection();  // FIXED HERE
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.executeUpdate();
+            ProductCatalog.get().clear();
             System.out.println("✅ All products deleted from database.");
             return true;
         } catch (SQLException e) {
@@ -0,0 +1,282 @@
+package app.dao;
+
+import app.model.Product;
+import app.util.DBUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ProductSearchDAO.java
+ * --------------------------------
+ * Full-text product search inside SQLite (FTS5), ranked with BM25.
+ * <p>
+ * Why we need this:
+ * - Searching by name used to mean loading the whole catalog into the JVM and
+ *   scanning it; here the database answers from an inverted index and only the
+ *   requested page of products is read
+ * <p>
+ * Two external-content FTS5 tables index the products table without copying it:
+ * - products_fts: words of name and category, with prefix indexes, so "ham dri"
+ *   finds "Hammer Drill" (name matches weigh more than category matches)
+ * - products_trigram: trigrams of the name, used as a fuzzy fallback when no
+ *   product matches every word (typos such as "hamer")
+ * <p>
+ * Triggers on products keep both in sync; stock changes do not touch them.
+ */
+public class ProductSearchDAO {
+
+    /**
+     * One page of search results.
+     *
+     * @param fuzzy true if nothing matched exactly and these are the closest names
+     */
+    public record SearchPage(List<Product> products, boolean fuzzy) {
+    }
+
+    // BM25 column weights: name, category
+    private static final String EXACT_SQL = """
+            SELECT p.* FROM products_fts f JOIN products p ON p.id = f.rowid
+            WHERE products_fts MATCH ?
+            ORDER BY bm25(products_fts, 10.0, 2.0), p.id
+            LIMIT ? OFFSET ?""";
+
+    private static final String FUZZY_SQL = """
+            SELECT p.* FROM products_trigram t JOIN products p ON p.id = t.rowid
+            WHERE products_trigram MATCH ?
+            ORDER BY bm25(products_trigram), p.id
+            LIMIT ? OFFSET ?""";
+
+    // Type-ahead ranks only the first matches found, so a one-letter prefix
+    // matching most of the catalog still answers quickly
+    private static final int TYPEAHEAD_CANDIDATES = 2000;
+
+    private static final String TYPEAHEAD_SQL = """
+            SELECT p.* FROM (
+                SELECT rowid, bm25(products_fts, 10.0, 2.0) AS score FROM products_fts
+                WHERE products_fts MATCH ? LIMIT ?
+            ) f JOIN products p ON p.id = f.rowid
+            ORDER BY f.score, p.id
+            LIMIT ?""";
+
+    /**
+     * Creates the FTS tables and their triggers; fills them from products the
+     * first time. Run by {@link SchemaMigrator}.
+     */
+    static void createSearchIndex(Statement stmt) throws SQLException {
+        boolean existed;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'products_fts'")) {
+            existed = rs.next();
+        }
+
+        stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS products_fts USING fts5(
+                    name, category,
+                    content = 'products', content_rowid = 'id',
+                    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')""");
+        stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS products_trigram USING fts5(
+                    name,
+                    content = 'products', content_rowid = 'id',
+                    tokenize = 'trigram')""");
+
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_products_search_insert AFTER INSERT ON products BEGIN
+                    INSERT INTO products_fts (rowid, name, category) VALUES (new.id, new.name, new.category);
+                    INSERT INTO products_trigram (rowid, name) VALUES (new.id, new.name);
+                END""");
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_products_search_delete AFTER DELETE ON products BEGIN
+                    INSERT INTO products_fts (products_fts, rowid, name, category) VALUES ('delete', old.id, old.name, old.category);
+                    INSERT INTO products_trigram (products_trigram, rowid, name) VALUES ('delete', old.id, old.name);
+                END""");
+        // Only text changes reindex; quantity and price updates skip this trigger
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_products_search_update AFTER UPDATE OF id, name, category ON products BEGIN
+                    INSERT INTO products_fts (products_fts, rowid, name, category) VALUES ('delete', old.id, old.name, old.category);
+                    INSERT INTO products_trigram (products_trigram, rowid, name) VALUES ('delete', old.id, old.name);
+                    INSERT INTO products_fts (rowid, name, category) VALUES (new.id, new.name, new.category);
+                    INSERT INTO products_trigram (rowid, name) VALUES (new.id, new.name);
+                END""");
+
+        if (!existed) {
+            stmt.execute("INSERT INTO products_fts (products_fts) VALUES ('rebuild')");
+            stmt.execute("INSERT INTO products_trigram (products_trigram) VALUES ('rebuild')");
+            System.out.println("✅ Product search index built.");
+        }
+    }
+
+    /**
+     * Searches product names and categories. Every word of the query must
+     * match the start of a word in the product (prefix match); results are
+     * ranked by BM25. If nothing matches, falls back to the names sharing the
+     * most trigrams with the query.
+     *
+     * @param query  words typed by the user
+     * @param offset number of results to skip (for paging)
+     * @param limit  page size
+     * @return the requested page, empty if the query has no searchable words
+     */
+    public SearchPage search(String query, int offset, int limit) {
+        String exact = toPrefixQuery(query);
+        if (exact.isEmpty()) {
+            return new SearchPage(List.of(), false);
+        }
+
+        try (Connection conn = DBUtil.getReadConnection()) {
+            if (hasMatch(conn, exact)) {
+                return new SearchPage(runQuery(conn, EXACT_SQL, exact, limit, Math.max(0, offset)), false);
+            }
+            String fuzzy = toTrigramQuery(query);
+            if (fuzzy.isEmpty()) {
+                return new SearchPage(List.of(), false);
+            }
+            return new SearchPage(runQuery(conn, FUZZY_SQL, fuzzy, limit, Math.max(0, offset)), true);
+        } catch (SQLException e) {
+            System.out.println("❌ Product search failed for: " + query);
+            e.printStackTrace();
+            return new SearchPage(List.of(), false);
+        }
+    }
+
+    /**
+     * Type-ahead lookup for pickers. An all-digit query lists products whose ID
+     * starts with those digits (shortest IDs first), then name/category prefix
+     * matches fill the remaining slots. Runs entirely in SQLite, so the catalog
+     * is never loaded into memory.
+     *
+     * @param limit maximum number of products returned
+     */
+    public List<Product> lookup(String query, int limit) {
+        String trimmed = query.trim();
+        List<Product> results = new ArrayList<>();
+
+        try (Connection conn = DBUtil.getReadConnection()) {
+            if (!trimmed.isEmpty() && trimmed.length() <= 9 && trimmed.chars().allMatch(Character::isDigit)) {
+                addIdPrefixMatches(conn, Long.parseLong(trimmed), limit, results);
+            }
+
+            String match = toPrefixQuery(trimmed);
+            if (results.size() < limit && !match.isEmpty()) {
+                Set<Integer> seen = new HashSet<>();
+                results.forEach(p -> seen.add(p.getId()));
+                for (Product p : runQuery(conn, TYPEAHEAD_SQL, match, TYPEAHEAD_CANDIDATES, limit)) {
+                    if (results.size() == limit) {
+                        break;
+                    }
+                    if (seen.add(p.getId())) {
+                        results.add(p);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Product lookup failed for: " + query);
+            e.printStackTrace();
+        }
+        return results;
+    }
+
+    /**
+     * IDs starting with the digits of {@code prefix}: prefix itself, then
+     * prefix0..prefix9, prefix00..prefix99, ... each range one primary-key seek.
+     */
+    private static void addIdPrefixMatches(Connection conn, long prefix, int limit, List<Product> results)
+            throws SQLException {
+        String sql = "SELECT * FROM products WHERE id BETWEEN ? AND ? ORDER BY id LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (long low = prefix, high = prefix; low <= Integer.MAX_VALUE && results.size() < limit;
+                 low = low * 10, high = high * 10 + 9) {
+                if (prefix == 0 && low == 0 && high > 0) {
+                    break; // "0" has no longer IDs starting with it
+                }
+                stmt.setLong(1, low);
+                stmt.setLong(2, Math.min(high, Integer.MAX_VALUE));
+                stmt.setInt(3, limit - results.size());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(ProductDAO.readProduct(rs));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean hasMatch(Connection conn, String match) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM products_fts WHERE products_fts MATCH ? LIMIT 1")) {
+            stmt.setString(1, match);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // Binds the MATCH expression, then the remaining int parameters in order
+    private static List<Product> runQuery(Connection conn, String sql, String match, int... params)
+            throws SQLException {
+        List<Product> products = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, match);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setInt(i + 2, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(ProductDAO.readProduct(rs));
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * "hammer dr" -> "hammer"* "dr"* (every word, as a prefix).
+     * Words are quoted so FTS5 operators typed by the user are taken literally.
+     */
+    static String toPrefixQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : words(query)) {
+            if (!match.isEmpty()) {
+                match.append(' ');
+            }
+            match.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return match.toString();
+    }
+
+    /**
+     * "hamer" -> "ham" OR "ame" OR "mer"; names sharing more trigrams rank higher.
+     */
+    static String toTrigramQuery(String query) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                trigrams.add(word.substring(i, i + 3));
+            }
+        }
+        StringBuilder match = new StringBuilder();
+        for (String trigram : trigrams) {
+            if (!match.isEmpty()) {
+                match.append(" OR ");
+            }
+            match.append('"').append(trigram.replace("\"", "\"\"")).append('"');
+        }
+        return match.toString();
+    }
+
+    private static List<String> words(String query) {
+        List<String> words = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
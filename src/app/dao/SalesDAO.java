@@ -1,103 +1,645 @@
 package app.dao;
 
 import app.model.Sale;
+import app.util.AnalyticsSnapshot;
 import app.util.DBUtil;
 
 import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * SalesDAO.java
  * Handles database operations related to sales.
+ * The sales table is an append-only ledger: one row per sale, never overwritten.
+ * Its tables are created by SchemaMigrator.
  */
 public class SalesDAO {
 
-    // Constructor where we create the sales table if it doesn't exist
-    public SalesDAO() {
-        // Automatically create the sales table when this object is instantiated
-        createSalesTable();
+    private static final String INSERT_SALE_SQL = "INSERT INTO sales (product_id, product_name, quantity_sold, total_price, sale_ts, category) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Creates the append-only sales ledger and its indexes if they don't exist.
+     * Every sale gets its own row (sale_id); sale_ts holds epoch milliseconds.
+     * An older table keyed by product_id is migrated first.
+     * Run by {@link SchemaMigrator} inside its transaction.
+     */
+    static void createLedger(Connection conn) throws SQLException {
+        migrateLegacySalesTable(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS sales (
+                        sale_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        product_id INTEGER NOT NULL,
+                        product_name TEXT,
+                        quantity_sold INTEGER NOT NULL,
+                        total_price REAL NOT NULL,
+                        sale_ts INTEGER NOT NULL,
+                        category TEXT
+                    )""");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sales_ts ON sales (sale_ts)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sales_product_ts ON sales (product_id, sale_ts)");
+        }
     }
 
     /**
-     * Creates or updates the sales table to include the category field.
+     * One-time migration from the old layout, where product_id was the PRIMARY KEY
+     * and sale_datetime an ISO text column. Existing rows are copied into the new
+     * ledger and the old table is dropped, in the caller's transaction.
      */
-    private void createSalesTable() {
-        String createTableSQL = "CREATE TABLE IF NOT EXISTS sales (" +
-                "product_id INTEGER PRIMARY KEY, " +
-                "product_name TEXT, " +
-                "quantity_sold INTEGER, " +
-                "total_price REAL, " +
-                "sale_datetime TEXT, " +
-                "category TEXT" +  // Adding category column to the table
-                ")";
+    private static void migrateLegacySalesTable(Connection conn) throws SQLException {
+        boolean legacy = false;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(sales)")) {
+            while (rs.next()) {
+                if ("sale_datetime".equals(rs.getString("name"))) {
+                    legacy = true;
+                }
+            }
+        }
+        if (!legacy) {
+            return;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE sales RENAME TO sales_legacy");
+            stmt.execute("""
+                    CREATE TABLE sales (
+                        sale_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        product_id INTEGER NOT NULL,
+                        product_name TEXT,
+                        quantity_sold INTEGER NOT NULL,
+                        total_price REAL NOT NULL,
+                        sale_ts INTEGER NOT NULL,
+                        category TEXT
+                    )""");
 
+            int copied = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM sales_legacy");
+                 PreparedStatement insert = conn.prepareStatement(INSERT_SALE_SQL)) {
+                while (rs.next()) {
+                    insert.setInt(1, rs.getInt("product_id"));
+                    insert.setString(2, rs.getString("product_name"));
+                    insert.setInt(3, rs.getInt("quantity_sold"));
+                    insert.setDouble(4, rs.getDouble("total_price"));
+                    insert.setLong(5, toEpochMillis(LocalDateTime.parse(rs.getString("sale_datetime"))));
+                    insert.setString(6, rs.getString("category"));
+                    insert.addBatch();
+                    copied++;
+                }
+                insert.executeBatch();
+            }
+
+            stmt.execute("DROP TABLE sales_legacy");
+            System.out.println("✅ Migrated " + copied + " sales to the append-only ledger.");
+        }
+    }
+
+    /**
+     * Creates the materialized aggregate tables and the triggers that keep them
+     * in step with the ledger. Because the triggers fire inside the INSERT that
+     * records a sale, totals are updated atomically with every recordSale.
+     * Backfills from the ledger the first time the tables appear.
+     * Run by {@link SchemaMigrator} inside its transaction.
+     */
+    static void createAggregateTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sales_product_totals (
+                    product_id INTEGER PRIMARY KEY,
+                    product_name TEXT,
+                    category TEXT,
+                    quantity INTEGER NOT NULL DEFAULT 0,
+                    revenue REAL NOT NULL DEFAULT 0
+                )""");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_product_totals_quantity ON sales_product_totals (quantity)");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sales_category_totals (
+                    category TEXT PRIMARY KEY NOT NULL,
+                    quantity INTEGER NOT NULL DEFAULT 0,
+                    revenue REAL NOT NULL DEFAULT 0
+                )""");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sales_daily_revenue (
+                    day TEXT PRIMARY KEY NOT NULL,
+                    quantity INTEGER NOT NULL DEFAULT 0,
+                    revenue REAL NOT NULL DEFAULT 0
+                )""");
+
+        // Categories are stored as '' when a sale has none, so the primary key stays unique
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_sales_totals_insert AFTER INSERT ON sales
+                BEGIN
+                    INSERT INTO sales_product_totals (product_id, product_name, category, quantity, revenue)
+                    VALUES (NEW.product_id, NEW.product_name, NEW.category, NEW.quantity_sold, NEW.total_price)
+                    ON CONFLICT(product_id) DO UPDATE SET
+                        product_name = excluded.product_name,
+                        category = excluded.category,
+                        quantity = quantity + excluded.quantity,
+                        revenue = revenue + excluded.revenue;
+                    INSERT INTO sales_category_totals (category, quantity, revenue)
+                    VALUES (IFNULL(NEW.category, ''), NEW.quantity_sold, NEW.total_price)
+                    ON CONFLICT(category) DO UPDATE SET
+                        quantity = quantity + excluded.quantity,
+                        revenue = revenue + excluded.revenue;
+                    INSERT INTO sales_daily_revenue (day, quantity, revenue)
+                    VALUES (strftime('%Y-%m-%d', NEW.sale_ts / 1000, 'unixepoch', 'localtime'),
+                            NEW.quantity_sold, NEW.total_price)
+                    ON CONFLICT(day) DO UPDATE SET
+                        quantity = quantity + excluded.quantity,
+                        revenue = revenue + excluded.revenue;
+                END""");
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_sales_totals_delete AFTER DELETE ON sales
+                BEGIN
+                    UPDATE sales_product_totals
+                    SET quantity = quantity - OLD.quantity_sold, revenue = revenue - OLD.total_price
+                    WHERE product_id = OLD.product_id;
+                    UPDATE sales_category_totals
+                    SET quantity = quantity - OLD.quantity_sold, revenue = revenue - OLD.total_price
+                    WHERE category = IFNULL(OLD.category, '');
+                    UPDATE sales_daily_revenue
+                    SET quantity = quantity - OLD.quantity_sold, revenue = revenue - OLD.total_price
+                    WHERE day = strftime('%Y-%m-%d', OLD.sale_ts / 1000, 'unixepoch', 'localtime');
+                END""");
+
+        boolean empty;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT NOT EXISTS (SELECT 1 FROM sales_category_totals) AND EXISTS (SELECT 1 FROM sales)")) {
+            empty = rs.next() && rs.getBoolean(1);
+        }
+        if (empty) {
+            fillAggregates(stmt);
+        }
+    }
+
+    /**
+     * Recomputes every aggregate table from the ledger in one transaction.
+     * Use after restoring a backup or editing the sales table by hand.
+     *
+     * @return true if the rebuild committed
+     */
+    public boolean rebuildAggregates() {
         try (Connection conn = DBUtil.getConnection();
              Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL);
-            System.out.println("✅ Sales table created (if not exists).");
+            conn.setAutoCommit(false);
+            try {
+                fillAggregates(stmt);
+                conn.commit();
+                System.out.println("✅ Sales aggregates rebuilt from the ledger.");
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
+            System.out.println("❌ Failed to rebuild sales aggregates.");
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Records a sale in the database.
+     * Replaces the contents of every aggregate table with totals computed from
+     * the ledger. The caller owns the transaction.
+     */
+    private static void fillAggregates(Statement stmt) throws SQLException {
+        stmt.execute("DELETE FROM sales_product_totals");
+        stmt.execute("DELETE FROM sales_category_totals");
+        stmt.execute("DELETE FROM sales_daily_revenue");
+        // The latest sale row supplies each product's current name and category
+        stmt.execute("""
+                INSERT INTO sales_product_totals (product_id, product_name, category, quantity, revenue)
+                SELECT s.product_id, latest.product_name, latest.category,
+                       SUM(s.quantity_sold), SUM(s.total_price)
+                FROM sales s
+                JOIN sales latest ON latest.sale_id =
+                    (SELECT MAX(sale_id) FROM sales WHERE product_id = s.product_id)
+                GROUP BY s.product_id""");
+        stmt.execute("""
+                INSERT INTO sales_category_totals (category, quantity, revenue)
+                SELECT IFNULL(category, ''), SUM(quantity_sold), SUM(total_price)
+                FROM sales GROUP BY IFNULL(category, '')""");
+        stmt.execute("""
+                INSERT INTO sales_daily_revenue (day, quantity, revenue)
+                SELECT strftime('%Y-%m-%d', sale_ts / 1000, 'unixepoch', 'localtime') AS d,
+                       SUM(quantity_sold), SUM(total_price)
+                FROM sales GROUP BY d""");
+    }
+
+    /**
+     * Converts a local sale time to the epoch milliseconds stored in sale_ts.
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Converts a stored sale_ts back to local time.
+     */
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Appends a sale to the ledger.
      *
      * @param sale The sale object to be recorded
      */
     public void recordSale(Sale sale) {
-        String insertSaleSQL = "INSERT OR REPLACE INTO sales (product_id, product_name, quantity_sold, total_price, sale_datetime, category) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-
         try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(insertSaleSQL)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SALE_SQL)) {
 
             // Setting the values for the prepared statement
             pstmt.setInt(1, sale.getProductId());
             pstmt.setString(2, sale.getProductName());
             pstmt.setInt(3, sale.getQuantitySold());
             pstmt.setDouble(4, sale.getTotalPrice());
-            pstmt.setString(5, sale.getSaleDateTime().toString());  // Date-Time as string
+            pstmt.setLong(5, toEpochMillis(sale.getSaleDateTime()));  // Epoch millis
             pstmt.setString(6, sale.getCategory());  // Product category
 
-            pstmt.executeUpdate();  // Execute the update (insert)
+            pstmt.executeUpdate();  // Execute the insert
+            AnalyticsSnapshot.salesRecorded(1);
             System.out.println("✅ Sale recorded: " + sale.getProductName());
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Appends several sales with one JDBC batch on the caller's connection.
+     * The caller owns the transaction.
+     *
+     * @param sales sales to append
+     */
+    public static void recordSales(Connection conn, List<Sale> sales) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SALE_SQL)) {
+            for (Sale sale : sales) {
+                pstmt.setInt(1, sale.getProductId());
+                pstmt.setString(2, sale.getProductName());
+                pstmt.setInt(3, sale.getQuantitySold());
+                pstmt.setDouble(4, sale.getTotalPrice());
+                pstmt.setLong(5, toEpochMillis(sale.getSaleDateTime()));
+                pstmt.setString(6, sale.getCategory());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        AnalyticsSnapshot.salesRecorded(sales.size());
+    }
+
     /**
      * Retrieves all sales records from the database.
+     * Holds the whole ledger in memory; large ledgers should use
+     * {@link #streamSales(int, Consumer)} or {@link #getSalesPage(long, int)}.
      *
      * @return List of all sales
      */
     public List<Sale> getAllSales() {
         List<Sale> salesList = new ArrayList<>();
-        String selectSalesSQL = "SELECT * FROM sales";
+        try {
+            streamSales(DEFAULT_FETCH_SIZE, salesList::add);
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to fetch sales from database.");
+            e.printStackTrace();
+            salesList.clear(); // never hand out part of the ledger as if it were all of it
+        }
+        return salesList;
+    }
 
-        try (Connection conn = DBUtil.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSalesSQL)) {
+    /**
+     * Rows fetched per round trip by {@link #streamSales(int, Consumer)}
+     * when the caller has no preference.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Restricts ledger reads to one category and/or a local date range.
+     * Null fields are not filtered on; both dates are inclusive.
+     */
+    public record SaleFilter(String category, LocalDate from, LocalDate to) {
+        public static final SaleFilter ALL = new SaleFilter(null, null, null);
+    }
+
+    /**
+     * Returns up to {@code limit} sales recorded after {@code afterSaleId}, in
+     * ledger order. Pass 0 for the first page and the last sale ID of a page for
+     * the next one; seeking on the primary key keeps every page equally cheap,
+     * unlike OFFSET which rescans all earlier rows.
+     */
+    public List<Sale> getSalesPage(long afterSaleId, int limit) {
+        return getSalesPage(SaleFilter.ALL, afterSaleId, limit);
+    }
+
+    /**
+     * Keyset page of the sales matching {@code filter}.
+     */
+    public List<Sale> getSalesPage(SaleFilter filter, long afterSaleId, int limit) {
+        List<Sale> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        String sql = "SELECT * FROM sales WHERE sale_id > ?" + filterClause(filter) + " ORDER BY sale_id LIMIT ?";
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, afterSaleId);
+            int next = bindFilter(stmt, filter, 2);
+            stmt.setInt(next, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(readSale(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to fetch sales after ID: " + afterSaleId);
+            e.printStackTrace();
+        }
+        return page;
+    }
+
+    /**
+     * Returns the sale_id of the matching sale just before position {@code offset},
+     * i.e. the key to pass to {@link #getSalesPage(SaleFilter, long, int)} to start
+     * at that position. Only the primary key is read, so jumping deep into the
+     * ledger stays cheap.
+     */
+    public long getSaleIdBefore(SaleFilter filter, int offset) {
+        if (offset <= 0) {
+            return 0;
+        }
+        String sql = "SELECT sale_id FROM sales WHERE 1 = 1" + filterClause(filter) + " ORDER BY sale_id LIMIT 1 OFFSET ?";
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int next = bindFilter(stmt, filter, 1);
+            stmt.setInt(next, offset - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to seek sales to position: " + offset);
+            e.printStackTrace();
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Counts the sales matching {@code filter}.
+     */
+    public int countSales(SaleFilter filter) {
+        String sql = "SELECT COUNT(*) FROM sales WHERE 1 = 1" + filterClause(filter);
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindFilter(stmt, filter, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to count sales.");
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Returns every non-empty category that has sales, sorted by name.
+     * Read from the per-category totals, so it does not scan the ledger.
+     */
+    public List<String> getSaleCategories() {
+        List<String> categories = new ArrayList<>();
+        String sql = "SELECT category FROM sales_category_totals WHERE category <> '' ORDER BY category";
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                int productId = rs.getInt("product_id");
-                String productName = rs.getString("product_name");
-                int quantitySold = rs.getInt("quantity_sold");
-                double totalPrice = rs.getDouble("total_price");
-                LocalDateTime saleDateTime = LocalDateTime.parse(rs.getString("sale_datetime"));
-                String category = rs.getString("category");  // Retrieve category from the database
-
-                // Create a Sale object and add it to the list
-                Sale sale = new Sale(productId, productName, quantitySold, totalPrice, saleDateTime, category);
-                salesList.add(sale);
+                categories.add(rs.getString(1));
             }
         } catch (SQLException e) {
+            System.out.println("❌ Failed to fetch sale categories.");
             e.printStackTrace();
         }
+        return categories;
+    }
 
-        return salesList;
+    /**
+     * Reads the whole ledger in sale order and hands each sale to
+     * {@code consumer} without collecting them, so exports and reports can
+     * process any number of sales in constant memory.
+     *
+     * @param fetchSize rows fetched per round trip
+     * @return number of sales passed to the consumer
+     * @throws SQLException if the read fails part-way; callers such as exports
+     *                      must not treat the sales seen so far as complete
+     */
+    public long streamSales(int fetchSize, Consumer<Sale> consumer) throws SQLException {
+        return streamSales(SaleFilter.ALL, fetchSize, consumer);
+    }
+
+    /**
+     * Streams the sales matching {@code filter}, in sale order.
+     *
+     * @throws SQLException if the read fails part-way
+     */
+    public long streamSales(SaleFilter filter, int fetchSize, Consumer<Sale> consumer) throws SQLException {
+        String sql = "SELECT * FROM sales WHERE 1 = 1" + filterClause(filter) + " ORDER BY sale_id";
+        long count = 0;
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindFilter(stmt, filter, 1);
+            stmt.setFetchSize(Math.max(1, fetchSize));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(readSale(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // " AND ..." conditions for the non-null fields of the filter
+    private static String filterClause(SaleFilter filter) {
+        StringBuilder sql = new StringBuilder();
+        if (filter.category() != null) {
+            sql.append(" AND category = ?");
+        }
+        if (filter.from() != null) {
+            sql.append(" AND sale_ts >= ?");
+        }
+        if (filter.to() != null) {
+            sql.append(" AND sale_ts < ?");
+        }
+        return sql.toString();
+    }
+
+    // Binds the filter's parameters starting at index; returns the next free index
+    private static int bindFilter(PreparedStatement stmt, SaleFilter filter, int index) throws SQLException {
+        if (filter.category() != null) {
+            stmt.setString(index++, filter.category());
+        }
+        if (filter.from() != null) {
+            stmt.setLong(index++, toEpochMillis(filter.from().atStartOfDay()));
+        }
+        if (filter.to() != null) {
+            stmt.setLong(index++, toEpochMillis(filter.to().plusDays(1).atStartOfDay()));
+        }
+        return index;
+    }
+
+    private static Sale readSale(ResultSet rs) throws SQLException {
+        return new Sale(
+                rs.getLong("sale_id"),
+                rs.getInt("product_id"),
+                rs.getString("product_name"),
+                rs.getInt("quantity_sold"),
+                rs.getDouble("total_price"),
+                fromEpochMillis(rs.getLong("sale_ts")),
+                rs.getString("category")
+        );
+    }
+
+    // ---------------------------------------------------------------
+    // Aggregate queries: read from the trigger-maintained totals tables,
+    // so cost depends on the number of groups, not the ledger size.
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns the sum of total_price over the whole ledger.
+     */
+    public double getTotalRevenue() {
+        String sql = "SELECT COALESCE(SUM(revenue), 0) FROM sales_category_totals";
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the top N products by quantity sold, largest first.
+     * Each Sale carries the product name and the summed quantity and revenue.
+     *
+     * @param limit number of products to return
+     */
+    public List<Sale> getTopProductsByQuantity(int limit) {
+        String sql = """
+                SELECT product_id, product_name, category, quantity, revenue
+                FROM sales_product_totals
+                ORDER BY quantity DESC
+                LIMIT ?""";
+        return queryProductTotals(sql, limit);
+    }
+
+    /**
+     * Returns one row per product with summed quantity and revenue.
+     */
+    public List<Sale> getProductTotals() {
+        String sql = """
+                SELECT product_id, product_name, category, quantity, revenue
+                FROM sales_product_totals
+                WHERE quantity <> 0 OR revenue <> 0""";
+        return queryProductTotals(sql, -1);
+    }
+
+    private List<Sale> queryProductTotals(String sql, int limit) {
+        List<Sale> totals = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (limit >= 0) {
+                stmt.setInt(1, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new Sale(rs.getInt("product_id"), rs.getString("product_name"), rs.getInt("quantity"),
+                            rs.getDouble("revenue"), now, rs.getString("category")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    /**
+     * Returns total revenue per category.
+     */
+    public Map<String, Double> getRevenueByCategory() {
+        String sql = "SELECT category, revenue FROM sales_category_totals";
+        Map<String, Double> revenue = new HashMap<>();
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                revenue.put(rs.getString(1), rs.getDouble(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return revenue;
+    }
+
+    /**
+     * Returns total quantity sold per category.
+     */
+    public Map<String, Integer> getQuantityByCategory() {
+        String sql = "SELECT category, quantity FROM sales_category_totals";
+        Map<String, Integer> quantity = new HashMap<>();
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                quantity.put(rs.getString(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return quantity;
+    }
+
+    /**
+     * Returns revenue per local calendar day or month, keyed "yyyy-MM-dd" or "yyyy-MM".
+     *
+     * @param monthly true to group by month, false to group by day
+     */
+    public Map<String, Double> getRevenueByPeriod(boolean monthly) {
+        String sql = monthly
+                ? "SELECT substr(day, 1, 7) AS bucket, SUM(revenue) FROM sales_daily_revenue GROUP BY bucket"
+                : "SELECT day, revenue FROM sales_daily_revenue";
+        Map<String, Double> revenue = new TreeMap<>();
+
+        try (Connection conn = DBUtil.getReportingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                revenue.put(rs.getString(1), rs.getDouble(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return revenue;
     }
-}
\ No newline at end of file
+}
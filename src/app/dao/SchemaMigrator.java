@@ -0,0 +1,159 @@
+package app.dao;
+
+import app.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SchemaMigrator.java
+ * -----------------------
+ * Creates and upgrades the database schema. Runs once at application start
+ * (MainApp), before any DAO is used.
+ * <p>
+ * Why we need this:
+ * - The DAO constructors used to run CREATE TABLE IF NOT EXISTS, and UserDAO
+ *   hashed and inserted the default admin, every time a window or controller
+ *   was built; constructing a DAO now does no I/O at all
+ * <p>
+ * Every change to the schema is a numbered migration. The versions applied so
+ * far are recorded in the schema_version table, and each pending migration
+ * runs in its own transaction together with its schema_version row, so a
+ * failed upgrade leaves the database at the previous version. Migrations 1-5
+ * describe the schema as it was before versioning; they use IF NOT EXISTS
+ * because databases from older releases already have some of it.
+ * <p>
+ * To change the schema, append a migration with the next version number;
+ * never edit one that has shipped.
+ */
+public final class SchemaMigrator {
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private record Migration(int version, String description, Step step) {
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "users table and default admin", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    UserDAO.createTable(stmt);
+                }
+                UserDAO.createDefaultAdmin(conn);
+            }),
+            new Migration(2, "products table with unique barcodes", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    ProductDAO.createTable(stmt);
+                }
+            }),
+            new Migration(3, "product full-text search index", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    ProductSearchDAO.createSearchIndex(stmt);
+                }
+            }),
+            new Migration(4, "append-only sales ledger", SalesDAO::createLedger),
+            new Migration(5, "sales aggregate tables and triggers", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    SalesDAO.createAggregateTables(stmt);
+                }
+            }),
+            // Sales history filtered by category pages in sale_id order; the
+            // index holds sale_id (rowid) after category, so no sort is needed
+            new Migration(6, "index sales by category", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE INDEX IF NOT EXISTS idx_sales_category ON sales (category)");
+                }
+            })
+    );
+
+    private static int migratedGeneration = -1;
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the current database (DBUtil) up to the latest schema version.
+     * Does nothing if this database was already migrated in this session.
+     *
+     * @return true if the schema is up to date
+     */
+    public static synchronized boolean migrate() {
+        int generation = DBUtil.getDatabaseGeneration();
+        if (migratedGeneration == generation) {
+            return true;
+        }
+
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INTEGER PRIMARY KEY,
+                        description TEXT NOT NULL,
+                        applied_at INTEGER NOT NULL
+                    )""");
+            int current = currentVersion(stmt);
+            int latest = MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+            if (current > latest) {
+                System.out.println("⚠️ Database schema version " + current
+                        + " is newer than this application knows (" + latest + ").");
+            }
+
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() > current) {
+                    apply(conn, migration);
+                }
+            }
+            migratedGeneration = generation;
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Database schema migration failed.");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * @return the highest migration version recorded in the current database, 0 if none
+     */
+    public static int getSchemaVersion() {
+        try (Connection conn = DBUtil.getReadConnection();
+             Statement stmt = conn.createStatement()) {
+            return currentVersion(stmt);
+        } catch (SQLException e) {
+            return 0; // no schema_version table yet
+        }
+    }
+
+    private static int currentVersion(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            migration.step().apply(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("✅ Schema migrated to version " + migration.version() + ": " + migration.description());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
@@ -21,41 +21,26 @@ import java.util.Base64;
  */
 public class UserDAO {
 
-    // Constructor: ensures users table and default admin are created
-    public UserDAO() {
-        createTableIfNotExists();
-        createTestAdmin(); // Create default admin if not exists
-    }
-
     /**
      * Creates the 'users' table if it does not already exist.
      * Uses id as primary key and includes salt column for password security.
+     * Run by {@link SchemaMigrator}, which also seeds the default admin.
      */
-    private void createTableIfNotExists() {
-        String sql = """
+    static void createTable(Statement stmt) throws SQLException {
+        stmt.execute("""
             CREATE TABLE IF NOT EXISTS users (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
                 username TEXT UNIQUE NOT NULL,
                 password TEXT NOT NULL,
                 salt TEXT NOT NULL,
                 role TEXT NOT NULL DEFAULT 'user'
-            );
-        """;
-
-        try (Connection conn = DBUtil.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("✅ Users table checked/created.");
-        } catch (SQLException e) {
-            System.out.println("❌ Failed to create users table.");
-            e.printStackTrace();
-        }
+            )""");
     }
 
     /**
      * Generates a cryptographically secure random salt (Base64 encoded).
      */
-    private String generateSalt() {
+    private static String generateSalt() {
         byte[] salt = new byte[16];
         new SecureRandom().nextBytes(salt);
         return Base64.getEncoder().encodeToString(salt);
@@ -68,7 +53,7 @@ public class UserDAO {
      * @param salt     Random salt
      * @return Base64 encoded hashed password
      */
-    private String hashPassword(String password, String salt) {
+    private static String hashPassword(String password, String salt) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
             md.update(salt.getBytes());
@@ -82,15 +67,16 @@ public class UserDAO {
     /**
      * Creates a default admin account if not already present.
      * Username: admin, Password: admin123, Role: admin
+     * Run by {@link SchemaMigrator} inside its transaction; failures are
+     * thrown so the migration rolls back instead of being recorded.
      */
-    public void createTestAdmin() {
+    static void createDefaultAdmin(Connection conn) throws SQLException {
         String sql = "INSERT OR IGNORE INTO users (username, password, salt, role) VALUES (?, ?, ?, ?)";
 
         String salt = generateSalt();
         String hashedPassword = hashPassword("admin123", salt);
 
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "admin");
             stmt.setString(2, hashedPassword);
             stmt.setString(3, salt);
@@ -102,9 +88,6 @@ public class UserDAO {
             } else {
                 System.out.println("ℹ️ Admin already exists.");
             }
-        } catch (SQLException e) {
-            System.out.println("❌ Failed to insert test admin.");
-            e.printStackTrace();
         }
     }
 
@@ -147,7 +130,7 @@ public class UserDAO {
     public User authenticate(String username, String password) {
         String sql = "SELECT * FROM users WHERE username = ?";
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, username);
@@ -184,7 +167,7 @@ public class UserDAO {
         List<User> users = new ArrayList<>();
         String sql = "SELECT id, username, role FROM users";
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -4,7 +4,7 @@ package app.model;
  * Product.java
  * -----------------
  * This class represents a product in the local vendor inventory system.
- * It holds data like product ID, name, quantity and price.
+ * It holds data like product ID, name, quantity, price and barcode/SKU.
  * Author : Saurabh Pandey
  * Date : 04 May 2025
  */
@@ -15,6 +15,7 @@ public class Product {
     private int quantity;       // Available quantity in Stock
     private double price;       // price per unit
     private String category;    // category of the product
+    private String barcode;     // scanned barcode / SKU, unique; null if none
 
 
     // --- Constructors---
@@ -31,7 +32,11 @@ public class Product {
         this.category = category;
     }
 
-
+    // Constructor with barcode / SKU
+    public Product(int id, String name, int quantity, double price, String category, String barcode) {
+        this(id, name, quantity, price, category);
+        this.barcode = barcode;
+    }
 
     // --- Getters and Setters ----
     public String getCategory() {
@@ -74,11 +79,19 @@ public class Product {
         this.price = price;
     }
 
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
     // -- toString() Method for Debugging ---
     @Override
     public String toString() {
-        return String.format("product {id = %d, Name ='%s', category='%s', quantity = %d, price = %.2f}",
-                id, name, category, quantity, price);
+        return String.format("product {id = %d, Name ='%s', category='%s', quantity = %d, price = %.2f, barcode = '%s'}",
+                id, name, category, quantity, price, barcode);
     }
 
 }
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
  * date and time of the sale, and the product's category.
  */
 public class Sale {
+    private final long saleId;     // Ledger row id, 0 for sales not yet stored
     private final int productId;
     private final String productName;
     private int quantitySold;
@@ -25,6 +26,16 @@ public class Sale {
      * @param category      Category of the product
      */
     public Sale(int productId, String productName, int quantitySold, double totalPrice, LocalDateTime saleDateTime, String category) {
+        this(0, productId, productName, quantitySold, totalPrice, saleDateTime, category);
+    }
+
+    /**
+     * Constructor for a sale read back from the ledger.
+     *
+     * @param saleId        Ledger row id
+     */
+    public Sale(long saleId, int productId, String productName, int quantitySold, double totalPrice, LocalDateTime saleDateTime, String category) {
+        this.saleId = saleId;
         this.productId = productId;
         this.productName = productName;
         this.quantitySold = quantitySold;
@@ -35,6 +46,7 @@ public class Sale {
 
     // Getters for all the fields
 
+    public long getSaleId() { return saleId; }
     public int getProductId() { return productId; }
     public String getProductName() { return productName; }
     public int getQuantitySold() { return quantitySold; }
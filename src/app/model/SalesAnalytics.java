@@ -1,15 +1,16 @@
 package app.model;
 
 import app.dao.SalesDAO;
+import app.util.AppEvents;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
 
 import javax.swing.*;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * SalesAnalytics.java
@@ -22,6 +23,10 @@ import java.util.stream.Collectors;
  * 4. Sales Over Time (Daily/Weekly/Monthly)
  * 5. Sold Quantity by Category
  * 6. Product-wise Sales Details
+ * <p>
+ * The grouping and summing run as SQL aggregates in SalesDAO, so each call
+ * costs one small result set (one row per group) rather than a full ledger scan.
+ * Each computation is emitted as a Flight Recorder {@link AppEvents.AnalyticsEvent}.
  */
 public class SalesAnalytics {
 
@@ -40,10 +45,7 @@ public class SalesAnalytics {
      * @return Total revenue as a double.
      */
     public double getTotalRevenue() {
-        return salesDAO.getAllSales()
-                .stream()
-                .mapToDouble(Sale::getTotalPrice)
-                .sum();
+        return measure("totalRevenue", null, salesDAO::getTotalRevenue);
     }
 
     /**
@@ -53,18 +55,7 @@ public class SalesAnalytics {
      * @return A list of Sale objects representing the best-selling products.
      */
     public List<Sale> getBestSellingProducts(int topN) {
-        Map<String, Integer> salesCount = new HashMap<>();
-
-        for (Sale sale : salesDAO.getAllSales()) {
-            salesCount.merge(sale.getProductName(), sale.getQuantitySold(), Integer::sum);
-        }
-
-        return salesCount.entrySet()
-                .stream()
-                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()))
-                .limit(topN)
-                .map(entry -> new Sale(0, entry.getKey(), entry.getValue(), 0, LocalDateTime.now(), ""))
-                .collect(Collectors.toList());
+        return measure("bestSellingProducts", "top " + topN, () -> salesDAO.getTopProductsByQuantity(topN));
     }
 
     /**
@@ -73,13 +64,7 @@ public class SalesAnalytics {
      * @return A map where the key is the category name and the value is the total revenue for that category.
      */
     public Map<String, Double> getSalesByCategory() {
-        Map<String, Double> categoryRevenue = new HashMap<>();
-
-        for (Sale sale : salesDAO.getAllSales()) {
-            categoryRevenue.merge(sale.getCategory(), sale.getTotalPrice(), Double::sum);
-        }
-
-        return categoryRevenue;
+        return measure("salesByCategory", null, salesDAO::getRevenueByCategory);
     }
 
     /**
@@ -88,13 +73,7 @@ public class SalesAnalytics {
      * @return A map where the key is the category name and the value is the total quantity sold for that category.
      */
     public Map<String, Integer> getSoldQuantityByCategory() {
-        Map<String, Integer> categoryQuantity = new HashMap<>();
-
-        for (Sale sale : salesDAO.getAllSales()) {
-            categoryQuantity.merge(sale.getCategory(), sale.getQuantitySold(), Integer::sum);
-        }
-
-        return categoryQuantity;
+        return measure("soldQuantityByCategory", null, salesDAO::getQuantityByCategory);
     }
 
     /**
@@ -103,46 +82,34 @@ public class SalesAnalytics {
      * @return A list of Sale objects with aggregated quantity and revenue per product.
      */
     public List<Sale> getProductSales() {
-        Map<String, Sale> productSalesMap = new HashMap<>();
-
-        for (Sale sale : salesDAO.getAllSales()) {
-            String productName = sale.getProductName();
-            if (productSalesMap.containsKey(productName)) {
-                Sale existing = productSalesMap.get(productName);
-                existing.setQuantitySold(existing.getQuantitySold() + sale.getQuantitySold());
-                existing.setTotalPrice(existing.getTotalPrice() + sale.getTotalPrice());
-            } else {
-                productSalesMap.put(productName, new Sale(
-                        0, productName, sale.getQuantitySold(), sale.getTotalPrice(),
-                        LocalDateTime.now(), sale.getCategory()
-                ));
-            }
-        }
-
-        return new ArrayList<>(productSalesMap.values());
+        return measure("productSales", null, salesDAO::getProductTotals);
     }
 
     /**
      * Returns sales revenue over time grouped by day, week, or month.
+     * Days and months are grouped in SQL; weeks are folded from the daily totals
+     * so week numbering follows the same locale rules as before.
      *
      * @param period The period to group by (daily, weekly, or monthly).
      * @return A map where the key is the time period (day/week/month) and the value is the total revenue for that period.
      */
     public Map<String, Double> getSalesOverTime(String period) {
-        Map<String, Double> salesTimeMap = new TreeMap<>();
-        DateTimeFormatter formatter = switch (period.toLowerCase()) {
-            case "daily" -> DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            case "weekly" -> DateTimeFormatter.ofPattern("yyyy-'W'ww");
-            case "monthly" -> DateTimeFormatter.ofPattern("yyyy-MM");
+        return measure("salesOverTime", period, () -> salesOverTime(period));
+    }
+
+    private Map<String, Double> salesOverTime(String period) {
+        return switch (period.toLowerCase()) {
+            case "daily" -> salesDAO.getRevenueByPeriod(false);
+            case "monthly" -> salesDAO.getRevenueByPeriod(true);
+            case "weekly" -> {
+                DateTimeFormatter weekFormatter = DateTimeFormatter.ofPattern("yyyy-'W'ww");
+                Map<String, Double> salesTimeMap = new TreeMap<>();
+                salesDAO.getRevenueByPeriod(false).forEach((day, revenue) ->
+                        salesTimeMap.merge(LocalDate.parse(day).format(weekFormatter), revenue, Double::sum));
+                yield salesTimeMap;
+            }
             default -> throw new IllegalArgumentException("Invalid period. Use daily, weekly, or monthly.");
         };
-
-        for (Sale sale : salesDAO.getAllSales()) {
-            String key = sale.getSaleDateTime().format(formatter);
-            salesTimeMap.merge(key, sale.getTotalPrice(), Double::sum);
-        }
-
-        return salesTimeMap;
     }
 
     /**
@@ -151,16 +118,26 @@ public class SalesAnalytics {
      * @return Map with category name as key and total quantity sold as value.
      */
     public Map<String, Integer> getSoldQuantitiesByCategory() {
-        Map<String, Integer> quantitiesByCategory = new HashMap<>();
+        return measure("soldQuantityByCategory", null, salesDAO::getQuantityByCategory);
+    }
 
-        List<Sale> allSales = salesDAO.getAllSales();
-        for (Sale sale : allSales) {
-            String category = sale.getCategory();
-            int quantity = sale.getQuantitySold();
-            quantitiesByCategory.put(category, quantitiesByCategory.getOrDefault(category, 0) + quantity);
+    /**
+     * Runs one computation inside a Flight Recorder {@link AppEvents.AnalyticsEvent}.
+     */
+    private static <T> T measure(String computation, String detail, Supplier<T> work) {
+        AppEvents.AnalyticsEvent event = new AppEvents.AnalyticsEvent();
+        event.begin();
+        T result = work.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.computation = computation;
+            event.detail = detail;
+            event.resultSize = result instanceof Collection<?> c ? c.size()
+                    : result instanceof Map<?, ?> m ? m.size()
+                    : 1;
+            event.commit();
         }
-
-        return quantitiesByCategory;
+        return result;
     }
 
     public JFreeChart createChartForCategoryTable(JTable table, String type) {
@@ -0,0 +1,134 @@
+package app.service;
+
+import app.dao.ProductDAO;
+import app.dao.SalesDAO;
+import app.model.BillItem;
+import app.model.Sale;
+import app.util.AppEvents;
+import app.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CheckoutService.java
+ * ---------------------------
+ * Commits a whole bill as one unit: every stock decrement and every sale row
+ * is written in a single transaction, or nothing is.
+ * <p>
+ * Stock decrements and sale inserts are each sent as one JDBC batch, so a
+ * bill of any length costs one commit (one fsync) instead of two per line.
+ * Every checkout is emitted as a Flight Recorder {@link AppEvents.CheckoutEvent}
+ * with the time spent waiting for the writer, updating stock, inserting the
+ * sales and committing.
+ */
+public class CheckoutService {
+
+    /**
+     * Outcome of a checkout.
+     *
+     * @param committed true if the bill was stored
+     * @param shortItem the line that lacked stock when committed is false, otherwise null
+     * @param message   human-readable summary
+     */
+    public record Result(boolean committed, BillItem shortItem, String message) {
+    }
+
+    /**
+     * Checks out a bill. Lines for the same product are merged first.
+     *
+     * @param billItems lines of the bill
+     * @return result telling whether the bill was committed
+     */
+    public Result checkout(List<BillItem> billItems) {
+        if (billItems.isEmpty()) {
+            return new Result(false, null, "No items in bill.");
+        }
+
+        AppEvents.CheckoutEvent event = new AppEvents.CheckoutEvent();
+        event.begin();
+        List<BillItem> lines = mergeLines(billItems);
+        LocalDateTime now = LocalDateTime.now();
+        List<Sale> sales = new ArrayList<>(lines.size());
+        for (BillItem item : lines) {
+            sales.add(new Sale(item.getProductId(), item.getProductName(), item.getQuantity(),
+                    item.getTotalPrice(), now, item.getCategory()));
+            event.units += item.getQuantity();
+            event.total += item.getTotalPrice();
+        }
+        event.lines = lines.size();
+
+        long phase = System.nanoTime();
+        try (Connection conn = DBUtil.getConnection()) {
+            event.writerWait = System.nanoTime() - phase;
+            conn.setAutoCommit(false);
+            try {
+                phase = System.nanoTime();
+                int shortLine = ProductDAO.decrementStockBatch(conn, lines);
+                event.stockUpdate = System.nanoTime() - phase;
+                if (shortLine >= 0) {
+                    conn.rollback();
+                    BillItem item = lines.get(shortLine);
+                    commitEvent(event, false, "insufficient stock");
+                    return new Result(false, item, "Insufficient stock for: " + item.getProductName());
+                }
+                phase = System.nanoTime();
+                SalesDAO.recordSales(conn, sales);
+                event.salesInsert = System.nanoTime() - phase;
+                phase = System.nanoTime();
+                conn.commit();
+                event.commit = System.nanoTime() - phase;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Checkout failed; bill rolled back.");
+            e.printStackTrace();
+            commitEvent(event, false, "failed");
+            return new Result(false, null, "Checkout failed: " + e.getMessage());
+        }
+
+        int[] productIds = new int[lines.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = lines.get(i).getProductId();
+        }
+        ProductDAO.refreshCachedProducts(productIds);
+        System.out.println("✅ Checkout committed: " + lines.size() + " lines.");
+        commitEvent(event, true, "committed");
+        return new Result(true, null, "Sale recorded and bill generated!");
+    }
+
+    private static void commitEvent(AppEvents.CheckoutEvent event, boolean committed, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.committed = committed;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * Merges lines that refer to the same product, keeping bill order.
+     */
+    private List<BillItem> mergeLines(List<BillItem> billItems) {
+        Map<Integer, BillItem> merged = new LinkedHashMap<>();
+        for (BillItem item : billItems) {
+            BillItem existing = merged.get(item.getProductId());
+            if (existing == null) {
+                merged.put(item.getProductId(), new BillItem(item.getProductId(), item.getProductName(),
+                        item.getQuantity(), item.getPricePerUnit(), item.getCategory()));
+            } else {
+                existing.setQuantity(existing.getQuantity() + item.getQuantity());
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
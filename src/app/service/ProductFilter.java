@@ -0,0 +1,146 @@
+package app.service;
+
+import app.model.Product;
+import app.util.TrigramIndex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductFilter.java
+ * --------------------------------
+ * The filter-and-sort behind the "View All Products" table, kept free of
+ * Swing so it can be benchmarked on its own.
+ * <p>
+ * Matches come from a {@link TrigramIndex} over name and category; the result
+ * is then read off a precomputed ordering for the selected sort, so nothing is
+ * re-sorted per keystroke. Results are views over the product list, not copies.
+ * Not thread-safe (the index remembers the previous query); build it on any
+ * thread, then use it from one.
+ */
+public class ProductFilter {
+
+    public static final String SORT_NAME_ASC = "Sort: Name (A-Z)";
+    public static final String SORT_NAME_DESC = "Sort: Name (Z-A)";
+    public static final String SORT_QUANTITY_ASC = "Sort: Quantity (Low to High)";
+    public static final String SORT_QUANTITY_DESC = "Sort: Quantity (High to Low)";
+
+    /**
+     * Sort options in display order.
+     */
+    public static final String[] SORT_OPTIONS = {SORT_NAME_ASC, SORT_NAME_DESC, SORT_QUANTITY_ASC, SORT_QUANTITY_DESC};
+
+    private final List<Product> products;
+    private final TrigramIndex searchIndex;                             // over "name \u0001 category"
+    private final Map<String, SortOrder> sortOrders = new HashMap<>();  // sort option -> precomputed order
+    private final boolean[] matched;                                    // scratch marks for the current filter
+
+    public ProductFilter(List<Product> products) {
+        this.products = products;
+        // Build the search index once; keystrokes then only query it
+        this.searchIndex = new TrigramIndex(products.stream()
+                .map(p -> p.getName() + '\u0001' + p.getCategory())
+                .toList());
+        this.matched = new boolean[products.size()];
+    }
+
+    /**
+     * @return number of products being filtered
+     */
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * Returns the products whose name or category contains {@code keyword}
+     * (ignoring case), in the order given by {@code sortOption}.
+     */
+    public List<Product> filter(String keyword, String sortOption) {
+        SortOrder sort = sortOrder(sortOption);
+        int[] order = sort.positions;
+
+        int[] hits = searchIndex.search(keyword);
+        int[] rows;
+        if (hits.length == order.length) {
+            rows = order;
+        } else if (hits.length < order.length / 8) {
+            // Few matches: sort them by rank instead of walking the whole order
+            long[] keyed = new long[hits.length];
+            for (int i = 0; i < hits.length; i++) {
+                keyed[i] = ((long) sort.rank[hits[i]] << 32) | hits[i];
+            }
+            Arrays.sort(keyed);
+            rows = new int[hits.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = (int) keyed[i];
+            }
+        } else {
+            for (int doc : hits) {
+                matched[doc] = true;
+            }
+            rows = new int[hits.length];
+            int n = 0;
+            for (int doc : order) {
+                if (matched[doc]) {
+                    rows[n++] = doc;
+                }
+            }
+            for (int doc : hits) {
+                matched[doc] = false;
+            }
+        }
+
+        return new AbstractList<>() {
+            @Override
+            public Product get(int index) {
+                return products.get(rows[index]);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    /**
+     * Product positions in one sort order, and each position's rank in it.
+     */
+    private record SortOrder(int[] positions, int[] rank) {
+    }
+
+    /**
+     * Returns the ordering for the given sort option, computing it the first
+     * time the option is selected.
+     */
+    private SortOrder sortOrder(String sortOption) {
+        String key = sortOption == null ? "" : sortOption;
+        return sortOrders.computeIfAbsent(key, k -> {
+            Comparator<Product> comparator = switch (k) {
+                case SORT_NAME_ASC -> Comparator.comparing(Product::getName);
+                case SORT_NAME_DESC -> Comparator.comparing(Product::getName).reversed();
+                case SORT_QUANTITY_ASC -> Comparator.comparingInt(Product::getQuantity);
+                case SORT_QUANTITY_DESC -> Comparator.comparingInt(Product::getQuantity).reversed();
+                default -> null;
+            };
+            Integer[] positions = new Integer[products.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            if (comparator != null) {
+                Arrays.sort(positions, (a, b) -> comparator.compare(products.get(a), products.get(b)));
+            }
+            int[] order = new int[positions.length];
+            int[] rank = new int[positions.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = positions[i];
+                rank[positions[i]] = i;
+            }
+            return new SortOrder(order, rank);
+        });
+    }
+}
@@ -0,0 +1,405 @@
+package app.testing;
+
+import app.controller.ProductController;
+import app.dao.SchemaMigrator;
+import app.model.BillItem;
+import app.service.CheckoutService;
+import app.util.AppEvents;
+import app.util.DBUtil;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LoadTest.java
+ * -----------------------
+ * Headless load test: generates a database, then lets several simulated
+ * terminals sell from it at the same time and reports how fast and how
+ * correctly that went.
+ * <p>
+ * Why we need this:
+ * - To size hardware ("how many tills can one PC serve?") and to check that a
+ *   concurrency fix really fixed something, instead of clicking through the UI
+ * <p>
+ * Each terminal is a thread with its own ProductController and
+ * CheckoutService. It loops until the time is up, doing either a single
+ * {@link ProductController#recordSale} or a multi-line bill through
+ * {@link CheckoutService#checkout}, picking products with the same Zipf skew
+ * as the history (the best sellers so far stay the best sellers), so the hot
+ * rows are fought over as they are in a busy shop.
+ * <p>
+ * Afterwards stock and ledger are compared with what the terminals were told:
+ * - oversold:     a product ended below zero or sold more than it had
+ * - lost updates: stock went down by less than the confirmed sales
+ * - phantom:      stock went down by more than the confirmed sales
+ * - ledger:       sale rows written differ from the confirmed sales
+ * All four should be 0.
+ * <p>
+ * Usage:
+ * java -cp ... app.testing.LoadTest [--db inventory.db] [--force] [--products 10000]
+ * [--categories 12] [--sales 100000] [--from 2024-01-01] [--to 2025-12-31] [--skew 1.0]
+ * [--max-stock 500] [--seed 42] [--skip-generate] [--terminals 8] [--duration 30]
+ * [--checkout-ratio 0.5] [--max-lines 5] [--verbose]
+ * <p>
+ * --duration 0 only generates; --skip-generate load-tests an existing database.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("db", "inventory.db");
+        DEFAULTS.put("products", "10000");
+        DEFAULTS.put("categories", "12");
+        DEFAULTS.put("sales", "100000");
+        DEFAULTS.put("from", LocalDate.now().minusYears(2).toString());
+        DEFAULTS.put("to", LocalDate.now().minusDays(1).toString());
+        DEFAULTS.put("skew", "1.0");
+        DEFAULTS.put("max-stock", "500");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("terminals", "8");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("checkout-ratio", "0.5");
+        DEFAULTS.put("max-lines", "5");
+    }
+
+    private static final List<String> FLAGS = List.of("force", "skip-generate", "verbose");
+
+    /**
+     * How one operation ended.
+     */
+    private enum Outcome { OK, REJECTED, ERROR }
+
+    /**
+     * A product as the terminals see it; index is its position in the snapshot.
+     */
+    private record Item(int id, String name, double price, String category) {
+    }
+
+    /**
+     * Latencies and outcomes of one kind of operation on one terminal.
+     * Only its own terminal writes to it; it is read after the run.
+     */
+    private static final class Recorder {
+        private long[] nanos = new long[1024];
+        private int count;
+        private final long[] outcomes = new long[Outcome.values().length];
+
+        void record(long elapsed, Outcome outcome) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+            outcomes[outcome.ordinal()]++;
+        }
+
+        void addTo(Recorder total) {
+            if (total.count + count > total.nanos.length) {
+                total.nanos = Arrays.copyOf(total.nanos, total.count + count);
+            }
+            System.arraycopy(nanos, 0, total.nanos, total.count, count);
+            total.count += count;
+            for (int i = 0; i < outcomes.length; i++) {
+                total.outcomes[i] += outcomes[i];
+            }
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(count * percentile / 100.0);
+            return nanos[Math.max(0, Math.min(count, rank) - 1)] / 1e6;
+        }
+
+        void sort() {
+            Arrays.sort(nanos, 0, count);
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options == null) {
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        AppEvents.startRecordingIfRequested(); // -Dinventory.jfr=<file> records the run
+
+        Path db = Path.of(options.get("db"));
+        if (options.containsKey("skip-generate")) {
+            if (!Files.exists(db)) {
+                System.out.println("❌ " + db + " does not exist.");
+                System.exit(1);
+                return;
+            }
+            DBUtil.useDatabase("jdbc:sqlite:" + db.toAbsolutePath());
+            if (!SchemaMigrator.migrate()) {
+                System.exit(1);
+                return;
+            }
+        } else {
+            WorkloadGenerator.Spec spec = new WorkloadGenerator.Spec(
+                    Integer.parseInt(options.get("products")),
+                    Integer.parseInt(options.get("categories")),
+                    Integer.parseInt(options.get("sales")),
+                    LocalDate.parse(options.get("from")),
+                    LocalDate.parse(options.get("to")),
+                    Double.parseDouble(options.get("skew")),
+                    Integer.parseInt(options.get("max-stock")),
+                    Long.parseLong(options.get("seed")));
+            long start = System.nanoTime();
+            if (Files.exists(db) && !options.containsKey("force")) {
+                System.out.println("❌ " + db + " already exists; pass --force to replace it or --skip-generate to reuse it.");
+                System.exit(1);
+                return;
+            }
+            new WorkloadGenerator(spec).generate(db, options.containsKey("force"));
+            System.out.printf("ℹ️ Generation took %.1f s%n", (System.nanoTime() - start) / 1e9);
+        }
+
+        int duration = Integer.parseInt(options.get("duration"));
+        if (duration > 0) {
+            run(options, duration);
+        }
+        DBUtil.shutdown();
+    }
+
+    private static void run(Map<String, String> options, int durationSeconds) throws Exception {
+        int terminals = Integer.parseInt(options.get("terminals"));
+        double checkoutRatio = Double.parseDouble(options.get("checkout-ratio"));
+        int maxLines = Math.max(1, Integer.parseInt(options.get("max-lines")));
+        double skew = Double.parseDouble(options.get("skew"));
+        long seed = Long.parseLong(options.get("seed"));
+
+        // Best sellers first, so Zipf rank 0 is the hottest product
+        List<Item> items = new ArrayList<>();
+        Map<Integer, Integer> indexOf = new HashMap<>();
+        try (Connection conn = DBUtil.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                     SELECT p.id, p.name, p.price, p.category
+                     FROM products p
+                     LEFT JOIN (SELECT product_id, SUM(quantity_sold) AS units FROM sales GROUP BY product_id) s
+                       ON s.product_id = p.id
+                     ORDER BY COALESCE(s.units, 0) DESC, p.id""")) {
+            while (rs.next()) {
+                indexOf.put(rs.getInt("id"), items.size());
+                items.add(new Item(rs.getInt("id"), rs.getString("name"), rs.getDouble("price"), rs.getString("category")));
+            }
+        }
+        if (items.isEmpty()) {
+            System.out.println("❌ No products to sell.");
+            return;
+        }
+        long[] stockBefore = readStock(indexOf);
+        long[] ledgerBefore = readLedger(indexOf);
+
+        WorkloadGenerator.Zipf zipf = new WorkloadGenerator.Zipf(items.size(), skew);
+        AtomicLongArray confirmed = new AtomicLongArray(items.size()); // units the terminals were told were sold
+        Recorder[] saleRecorders = new Recorder[terminals];
+        Recorder[] checkoutRecorders = new Recorder[terminals];
+        CountDownLatch ready = new CountDownLatch(terminals);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < terminals; t++) {
+            Recorder sales = saleRecorders[t] = new Recorder();
+            Recorder checkouts = checkoutRecorders[t] = new Recorder();
+            Random random = new Random(seed + 1 + t);
+            Thread thread = new Thread(() -> {
+                ProductController controller = new ProductController();
+                CheckoutService checkoutService = new CheckoutService();
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline[0]) {
+                    if (random.nextDouble() < checkoutRatio) {
+                        List<BillItem> bill = new ArrayList<>();
+                        int lines = 1 + random.nextInt(maxLines);
+                        for (int i = 0; i < lines; i++) {
+                            Item item = items.get(zipf.next(random));
+                            bill.add(new BillItem(item.id(), item.name(), 1 + random.nextInt(3), item.price(), item.category()));
+                        }
+                        long start = System.nanoTime();
+                        Outcome outcome;
+                        try {
+                            CheckoutService.Result result = checkoutService.checkout(bill);
+                            outcome = result.committed() ? Outcome.OK
+                                    : result.shortItem() != null ? Outcome.REJECTED : Outcome.ERROR;
+                        } catch (RuntimeException e) {
+                            outcome = Outcome.ERROR;
+                        }
+                        checkouts.record(System.nanoTime() - start, outcome);
+                        if (outcome == Outcome.OK) {
+                            for (BillItem line : bill) {
+                                confirmed.addAndGet(indexOf.get(line.getProductId()), line.getQuantity());
+                            }
+                        }
+                    } else {
+                        int index = zipf.next(random);
+                        int quantity = 1 + random.nextInt(3);
+                        long start = System.nanoTime();
+                        Outcome outcome;
+                        try {
+                            // false means out of stock or a failed write; the console log tells which
+                            outcome = controller.recordSale(items.get(index).id(), quantity) ? Outcome.OK : Outcome.REJECTED;
+                        } catch (RuntimeException e) {
+                            outcome = Outcome.ERROR;
+                        }
+                        sales.record(System.nanoTime() - start, outcome);
+                        if (outcome == Outcome.OK) {
+                            confirmed.addAndGet(index, quantity);
+                        }
+                    }
+                }
+            }, "terminal-" + (t + 1));
+            threads.add(thread);
+            thread.start();
+        }
+
+        ready.await();
+        System.out.println("ℹ️ Running " + terminals + " terminals for " + durationSeconds + " s over "
+                + items.size() + " products...");
+        PrintStream console = System.out;
+        if (!options.containsKey("verbose")) {
+            System.setOut(new PrintStream(PrintStream.nullOutputStream())); // DAO logging would dominate the timings
+        }
+        long started = System.nanoTime();
+        deadline[0] = started + durationSeconds * 1_000_000_000L;
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        System.setOut(console);
+
+        Recorder sales = new Recorder();
+        Recorder checkouts = new Recorder();
+        for (int t = 0; t < terminals; t++) {
+            saleRecorders[t].addTo(sales);
+            checkoutRecorders[t].addTo(checkouts);
+        }
+        sales.sort();
+        checkouts.sort();
+
+        long[] stockAfter = readStock(indexOf);
+        long[] ledgerAfter = readLedger(indexOf);
+        int oversold = 0, lost = 0, phantom = 0, ledger = 0;
+        long units = 0;
+        for (int i = 0; i < items.size(); i++) {
+            long sold = confirmed.get(i);
+            long drop = stockBefore[i] - stockAfter[i];
+            units += sold;
+            if (stockAfter[i] < 0 || sold > stockBefore[i]) {
+                oversold++;
+            }
+            if (drop < sold) {
+                lost++;
+            } else if (drop > sold) {
+                phantom++;
+            }
+            if (ledgerAfter[i] - ledgerBefore[i] != sold) {
+                ledger++;
+            }
+        }
+
+        long operations = sales.count + checkouts.count;
+        System.out.println("📊 Load test: " + terminals + " terminals, " + String.format("%.1f", elapsed) + " s, "
+                + Runtime.getRuntime().availableProcessors() + " CPUs");
+        report("recordSale", sales, elapsed);
+        report("checkout", checkouts, elapsed);
+        System.out.printf("   throughput     %,.0f ops/s, %,.0f units sold/s%n", operations / elapsed, units / elapsed);
+        String verdict = oversold + lost + phantom + ledger == 0 ? "✅" : "❌";
+        System.out.println("   " + verdict + " oversold=" + oversold + " lostUpdates=" + lost
+                + " phantomDecrements=" + phantom + " ledgerMismatches=" + ledger + " (products)");
+    }
+
+    private static void report(String name, Recorder recorder, double elapsed) {
+        System.out.printf("   %-14s %,d ops (%,.0f/s)  ok=%,d rejected=%,d errors=%,d  p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                name, recorder.count, recorder.count / elapsed,
+                recorder.outcomes[Outcome.OK.ordinal()], recorder.outcomes[Outcome.REJECTED.ordinal()],
+                recorder.outcomes[Outcome.ERROR.ordinal()],
+                recorder.percentileMillis(50), recorder.percentileMillis(99), recorder.percentileMillis(100));
+    }
+
+    /**
+     * Stock per product, read straight from the database (not the in-memory catalog).
+     */
+    private static long[] readStock(Map<Integer, Integer> indexOf) throws SQLException {
+        return readPerProduct("SELECT id, quantity FROM products", indexOf);
+    }
+
+    /**
+     * Units in the sales ledger per product.
+     */
+    private static long[] readLedger(Map<Integer, Integer> indexOf) throws SQLException {
+        return readPerProduct("SELECT product_id, SUM(quantity_sold) FROM sales GROUP BY product_id", indexOf);
+    }
+
+    private static long[] readPerProduct(String sql, Map<Integer, Integer> indexOf) throws SQLException {
+        long[] values = new long[indexOf.size()];
+        try (Connection conn = DBUtil.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Integer index = indexOf.get(rs.getInt(1));
+                if (index != null) {
+                    values[index] = rs.getLong(2);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Parses "--name value" pairs and bare flags over the defaults.
+     *
+     * @return the options, or null if an argument is not recognised
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                return null;
+            }
+            String name = args[i].substring(2);
+            if (FLAGS.contains(name)) {
+                options.put(name, "true");
+            } else if (DEFAULTS.containsKey(name) && i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                return null;
+            }
+        }
+        return options;
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java -cp ... app.testing.LoadTest [--name value ...] [--force] [--skip-generate] [--verbose]");
+        DEFAULTS.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> System.out.printf("   --%-16s default %s%n", e.getKey(), e.getValue()));
+    }
+}
@@ -0,0 +1,211 @@
+package app.testing;
+
+import app.dao.ProductDAO;
+import app.dao.SalesDAO;
+import app.dao.SchemaMigrator;
+import app.model.Sale;
+import app.util.DBUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator.java
+ * -----------------------
+ * Builds a database with a realistic amount of data: N products spread over
+ * M categories and a sales history over a date range.
+ * <p>
+ * Why we need this:
+ * - products.csv and the 500-row sample say nothing about how the app behaves
+ *   after a year of trading; this produces that year in seconds
+ * <p>
+ * Sales follow a Zipf distribution over products, like a real shop where a
+ * handful of items make most of the sales. Which products are popular is
+ * decided by the seed, so the same {@link Spec} always produces the same
+ * database. Timestamps rise with sale_id, as they do in the live ledger.
+ */
+public final class WorkloadGenerator {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] ADJECTIVES = {
+            "Steel", "Plastic", "Cotton", "Wooden", "Copper", "Glass", "Rubber", "Leather",
+            "Electric", "Cordless", "Mini", "Heavy", "Organic", "Premium", "Classic", "Digital"
+    };
+    private static final String[] NOUNS = {
+            "Hammer", "Drill", "Bucket", "Shirt", "Kettle", "Lamp", "Notebook", "Pen",
+            "Charger", "Bottle", "Towel", "Brush", "Spanner", "Battery", "Cable", "Mug",
+            "Soap", "Rice", "Tea", "Biscuit"
+    };
+    private static final String[] CATEGORIES = {
+            "Hardware", "Kitchen", "Stationery", "Electronics", "Clothing", "Grocery",
+            "Cleaning", "Personal Care", "Garden", "Toys", "Sports", "Automotive"
+    };
+
+    /**
+     * What to generate.
+     *
+     * @param products   number of products (IDs 1..products)
+     * @param categories number of distinct categories
+     * @param sales      number of sale rows in the history
+     * @param from       first day of the history
+     * @param to         last day of the history (inclusive)
+     * @param skew       Zipf exponent; 0 is uniform, around 1 is a typical shop
+     * @param maxStock   each product starts with 0..maxStock units
+     * @param seed       random seed
+     */
+    public record Spec(int products, int categories, int sales, LocalDate from, LocalDate to,
+                       double skew, int maxStock, long seed) {
+    }
+
+    /**
+     * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew.
+     * Immutable, so terminals can share one and pass their own Random.
+     */
+    public static final class Zipf {
+        private final double[] cdf;
+
+        public Zipf(int n, double skew) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+        }
+
+        public int next(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+
+    private final Spec spec;
+
+    public WorkloadGenerator(Spec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Creates the database file, makes it the application's database
+     * (DBUtil.useDatabase) and fills it.
+     *
+     * @param file      database file to create
+     * @param overwrite delete an existing file first instead of refusing
+     */
+    public void generate(Path file, boolean overwrite) throws IOException, SQLException {
+        if (Files.exists(file)) {
+            if (!overwrite) {
+                throw new IOException(file + " already exists; pass --force to replace it");
+            }
+            DBUtil.shutdown();
+            for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                Files.deleteIfExists(Path.of(file + suffix));
+            }
+        }
+        DBUtil.useDatabase("jdbc:sqlite:" + file.toAbsolutePath());
+        if (!SchemaMigrator.migrate()) {
+            throw new SQLException("Could not create the schema in " + file);
+        }
+
+        Random random = new Random(spec.seed());
+        String[] categories = categoryNames(spec.categories());
+        String[] names = new String[spec.products() + 1];
+        String[] productCategories = new String[spec.products() + 1];
+        double[] prices = new double[spec.products() + 1];
+
+        String sql = "INSERT INTO products (id, name, quantity, price, category, barcode) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int id = 1; id <= spec.products(); id++) {
+                        names[id] = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                                + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+                        productCategories[id] = categories[random.nextInt(categories.length)];
+                        prices[id] = Math.round((0.5 + random.nextDouble() * 999.5) * 100) / 100.0;
+                        stmt.setInt(1, id);
+                        stmt.setString(2, names[id]);
+                        stmt.setInt(3, random.nextInt(spec.maxStock() + 1));
+                        stmt.setDouble(4, prices[id]);
+                        stmt.setString(5, productCategories[id]);
+                        stmt.setString(6, String.format("890%010d", id));
+                        stmt.addBatch();
+                        if (id % BATCH_SIZE == 0) {
+                            stmt.executeBatch();
+                        }
+                    }
+                    stmt.executeBatch();
+                }
+
+                // Popularity rank -> product ID, shuffled so best sellers are spread over the ID range
+                int[] byRank = new int[spec.products()];
+                for (int i = 0; i < byRank.length; i++) {
+                    byRank[i] = i + 1;
+                }
+                for (int i = byRank.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int swap = byRank[i];
+                    byRank[i] = byRank[j];
+                    byRank[j] = swap;
+                }
+                Zipf zipf = new Zipf(spec.products(), spec.skew());
+
+                ZoneId zone = ZoneId.systemDefault();
+                long start = spec.from().atStartOfDay(zone).toInstant().toEpochMilli();
+                long end = spec.to().plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                long span = Math.max(1, end - start);
+
+                List<Sale> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < spec.sales(); i++) {
+                    int id = byRank[zipf.next(random)];
+                    int quantity = 1 + random.nextInt(5);
+                    long ts = start + span * i / Math.max(1, spec.sales());
+                    LocalDateTime when = LocalDateTime.ofInstant(Instant.ofEpochMilli(ts), zone);
+                    batch.add(new Sale(id, names[id], quantity, quantity * prices[id], when, productCategories[id]));
+                    if (batch.size() == BATCH_SIZE) {
+                        SalesDAO.recordSales(conn, batch);
+                        batch.clear();
+                    }
+                }
+                SalesDAO.recordSales(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        ProductDAO.refreshCatalog(); // the catalog must not keep data from a previous database
+        System.out.println("✅ Generated " + spec.products() + " products in " + categories.length
+                + " categories and " + spec.sales() + " sales (" + spec.from() + " to " + spec.to() + ") in " + file);
+    }
+
+    /**
+     * "Hardware", "Kitchen", ... then "Hardware 2", "Kitchen 2", ... once the base names run out.
+     */
+    private static String[] categoryNames(int count) {
+        String[] names = new String[Math.max(1, count)];
+        for (int i = 0; i < names.length; i++) {
+            String base = CATEGORIES[i % CATEGORIES.length];
+            names[i] = i < CATEGORIES.length ? base : base + " " + (i / CATEGORIES.length + 1);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,257 @@
+package app.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AnalyticsSnapshot.java
+ * -----------------------
+ * Keeps a read-only copy of the database for reports, so analytics scans and
+ * the sales history never read the file the tills are writing.
+ * <p>
+ * Why we need this:
+ * - A long analytics scan holds a read transaction on inventory.db; that
+ *   stops WAL checkpoints and competes with checkouts for the disk and the
+ *   page cache, which on busy afternoons ends in SQLITE_BUSY at the till
+ * <p>
+ * The copy is taken with VACUUM INTO on a private connection: one consistent,
+ * compact file ("inventory-analytics-N.db" next to the database) written from
+ * a read transaction, so the writer is never blocked. It is refreshed every
+ * few minutes and after every N recorded sales, on one background thread. A
+ * new copy replaces the old one at once; the old one is closed and deleted
+ * when the last report reading it finishes.
+ * <p>
+ * {@link DBUtil#getReportingConnection()} hands out connections to the copy,
+ * or to the live database until the first copy exists (or when snapshots are
+ * off). Reports therefore lag the tills by at most one refresh;
+ * {@link #getSnapshotTime()} says how much.
+ * <p>
+ * Settings (system properties, all optional):
+ * - inventory.snapshot           false disables snapshots (default true)
+ * - inventory.snapshot.minutes   refresh interval in minutes (default 5)
+ * - inventory.snapshot.sales     also refresh after this many sales (default 200)
+ * - inventory.snapshot.readers   connections to the copy (default 2)
+ */
+public final class AnalyticsSnapshot {
+
+    private static final int DEFAULT_MINUTES = 5;
+    private static final int DEFAULT_SALES = 200;
+    private static final int DEFAULT_READERS = 2;
+    private static final String SUFFIX = "-analytics-";
+
+    /**
+     * One copy and the connections reading it.
+     */
+    private record Snapshot(Path file, ConnectionManager manager, int generation, LocalDateTime takenAt) {
+        void retire() {
+            manager.closeWhenIdle(() -> deleteQuietly(file));
+        }
+    }
+
+    private static volatile Snapshot current;
+    private static ScheduledExecutorService executor;
+    private static int salesThreshold;
+    private static int readers;
+    private static int sequence;                               // only touched on the executor thread
+    private static final AtomicInteger salesSinceRefresh = new AtomicInteger();
+    private static final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    private AnalyticsSnapshot() {
+    }
+
+    /**
+     * Starts taking snapshots of the current database. Call once at startup;
+     * later calls do nothing. The first copy is taken in the background.
+     */
+    public static synchronized void start() {
+        if (executor != null || !Boolean.parseBoolean(System.getProperty("inventory.snapshot", "true"))) {
+            return;
+        }
+        int minutes = Math.max(1, Integer.getInteger("inventory.snapshot.minutes", DEFAULT_MINUTES));
+        salesThreshold = Math.max(1, Integer.getInteger("inventory.snapshot.sales", DEFAULT_SALES));
+        readers = Math.max(1, Integer.getInteger("inventory.snapshot.readers", DEFAULT_READERS));
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "analytics-snapshot");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.execute(AnalyticsSnapshot::deleteLeftovers);
+        executor.scheduleWithFixedDelay(AnalyticsSnapshot::requestRefresh, 0, minutes, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(AnalyticsSnapshot::stop, "analytics-snapshot-stop"));
+        System.out.println("ℹ️ Analytics snapshots on (every " + minutes + " min or " + salesThreshold + " sales).");
+    }
+
+    /**
+     * Stops refreshing and removes the current copy; reports go back to the
+     * live database.
+     */
+    public static synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+        Snapshot snapshot = current;
+        current = null;
+        if (snapshot != null) {
+            snapshot.retire();
+        }
+    }
+
+    /**
+     * Tells the snapshot that sales were recorded; refreshes once enough
+     * have accumulated. Cheap, and a no-op while snapshots are off.
+     */
+    public static void salesRecorded(int count) {
+        if (executor != null && salesSinceRefresh.addAndGet(count) >= salesThreshold) {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * Queues a refresh unless one is already waiting.
+     */
+    public static void requestRefresh() {
+        ScheduledExecutorService exec = executor;
+        if (exec != null && refreshQueued.compareAndSet(false, true)) {
+            try {
+                exec.execute(AnalyticsSnapshot::refresh);
+            } catch (RuntimeException e) {
+                refreshQueued.set(false); // stopped meanwhile
+            }
+        }
+    }
+
+    /**
+     * @return when the copy reports currently read was taken, or null if they read the live database
+     */
+    public static LocalDateTime getSnapshotTime() {
+        Snapshot snapshot = usable();
+        return snapshot == null ? null : snapshot.takenAt();
+    }
+
+    /**
+     * Borrows a reader on the current copy.
+     *
+     * @return the connection, or null when there is no usable copy
+     */
+    static Connection getConnection() {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Snapshot snapshot = usable();
+            if (snapshot == null) {
+                return null;
+            }
+            try {
+                return snapshot.manager().getReadConnection();
+            } catch (SQLException e) {
+                // Retired between reading 'current' and borrowing; the next one is already in place
+            }
+        }
+        return null;
+    }
+
+    private static Snapshot usable() {
+        Snapshot snapshot = current;
+        return snapshot != null && snapshot.generation() == DBUtil.getDatabaseGeneration() ? snapshot : null;
+    }
+
+    /**
+     * Takes a new copy and swaps it in. Runs on the snapshot thread only.
+     */
+    private static void refresh() {
+        refreshQueued.set(false);
+        salesSinceRefresh.set(0); // sales from here on may miss this copy and count towards the next
+        int generation = DBUtil.getDatabaseGeneration();
+        String url = DBUtil.getDatabaseUrl();
+        Path database = databaseFile(url);
+        if (database == null) {
+            return;
+        }
+        Path target = database.resolveSibling(baseName(database) + SUFFIX + (++sequence) + ".db");
+        long start = System.nanoTime();
+        try {
+            Files.deleteIfExists(target);
+            try (Connection conn = DriverManager.getConnection(url);
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = 5000");
+                stmt.execute("VACUUM INTO '" + target.toAbsolutePath().toString().replace("'", "''") + "'");
+            }
+            ConnectionManager manager = ConnectionManager.forSnapshot("jdbc:sqlite:" + target.toAbsolutePath(), readers);
+            Snapshot previous = current;
+            current = new Snapshot(target, manager, generation, LocalDateTime.now());
+            if (previous != null) {
+                previous.retire();
+            }
+            System.out.printf("✅ Analytics snapshot refreshed in %d ms (%,d KiB).%n",
+                    (System.nanoTime() - start) / 1_000_000, Files.size(target) / 1024);
+        } catch (SQLException | IOException e) {
+            System.out.println("❌ Failed to refresh the analytics snapshot; reports keep the previous one.");
+            e.printStackTrace();
+            deleteQuietly(target);
+        }
+    }
+
+    /**
+     * Removes copies left behind by a run that did not shut down cleanly.
+     */
+    private static void deleteLeftovers() {
+        Path database = databaseFile(DBUtil.getDatabaseUrl());
+        if (database == null) {
+            return;
+        }
+        Path dir = database.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, baseName(database) + SUFFIX + "*.db")) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * "jdbc:sqlite:inventory.db" -> inventory.db; null for in-memory databases.
+     */
+    private static Path databaseFile(String url) {
+        String path = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : null;
+        if (path != null && path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        if (path != null && path.indexOf('?') >= 0) {
+            path = path.substring(0, path.indexOf('?'));
+        }
+        if (path == null || path.isEmpty() || path.startsWith(":memory:")) {
+            return null;
+        }
+        return Path.of(path);
+    }
+
+    private static String baseName(Path database) {
+        String name = database.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static void deleteQuietly(Path file) {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            try {
+                Files.deleteIfExists(Path.of(file + suffix));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
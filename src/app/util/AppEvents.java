@@ -0,0 +1,242 @@
+package app.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * AppEvents.java
+ * -----------------------
+ * Java Flight Recorder events for the work a terminal does: SQL statements,
+ * checkouts, CSV imports/exports and sales analytics.
+ * <p>
+ * Why we need this:
+ * - A recording from a production terminal then shows where the time of a
+ *   slow checkout went (writer wait, stock update, ledger insert, commit, and
+ *   every SQL statement inside) without attaching a profiler
+ * <p>
+ * The events are switched on by the settings file shipped in
+ * resources/jfr/inventory.jfc. Either start the app with
+ * -Dinventory.jfr=recording.jfr (it records with the JDK "default" settings plus
+ * ours and writes the file at exit), or pass the file to the JVM:
+ * -XX:StartFlightRecording:settings=default,settings=src/resources/jfr/inventory.jfc,filename=recording.jfr
+ * <p>
+ * Creating an event that is not enabled costs next to nothing, so the events
+ * are always emitted.
+ */
+public final class AppEvents {
+
+    private static final String SETTINGS_RESOURCE = "resources/jfr/inventory.jfc";
+
+    private AppEvents() {
+    }
+
+    /**
+     * One SQL statement, from execute until its last row was read.
+     * Emitted by {@link QueryMetrics}, so it needs inventory.db.metrics enabled.
+     */
+    @Name("inventory.Sql")
+    @Label("SQL Statement")
+    @Category({"Inventory", "Database"})
+    @Description("One SQL statement, from execute until its last row was read")
+    @StackTrace(false)
+    public static final class SqlEvent extends Event {
+        @Label("SQL")
+        @Description("Normalized SQL text")
+        public String sql;
+
+        @Label("Operation")
+        @Description("DAO method that ran the statement")
+        public String operation;
+
+        @Label("Rows")
+        @Description("Rows read by a query, or rows changed by an update")
+        public long rows;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    /**
+     * One bill checkout, with the time of each phase.
+     */
+    @Name("inventory.Checkout")
+    @Label("Checkout")
+    @Category({"Inventory", "Billing"})
+    @Description("One bill checked out, with the time spent in each phase")
+    public static final class CheckoutEvent extends Event {
+        @Label("Lines")
+        public int lines;
+
+        @Label("Units")
+        public int units;
+
+        @Label("Total")
+        public double total;
+
+        @Label("Committed")
+        public boolean committed;
+
+        @Label("Outcome")
+        public String outcome;
+
+        @Label("Writer Wait")
+        @Description("Waiting for the writer connection")
+        @Timespan(Timespan.NANOSECONDS)
+        public long writerWait;
+
+        @Label("Stock Update")
+        @Timespan(Timespan.NANOSECONDS)
+        public long stockUpdate;
+
+        @Label("Sales Insert")
+        @Timespan(Timespan.NANOSECONDS)
+        public long salesInsert;
+
+        @Label("Commit")
+        @Timespan(Timespan.NANOSECONDS)
+        public long commit;
+    }
+
+    /**
+     * One CSV import or export run.
+     */
+    @Name("inventory.CsvTransfer")
+    @Label("CSV Transfer")
+    @Category({"Inventory", "CSV"})
+    @Description("One CSV import or export run")
+    public static final class CsvTransferEvent extends Event {
+        @Label("Direction")
+        @Description("import or export")
+        public String direction;
+
+        @Label("File")
+        public String file;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Rows")
+        public long rows;
+
+        @Label("Rejected Rows")
+        public long rejected;
+
+        @Label("Rows per Second")
+        public double rowsPerSecond;
+
+        @Label("Outcome")
+        @Description("completed, cancelled or failed")
+        public String outcome;
+
+        private transient long startNanos; // transient: not part of the recorded event
+
+        /**
+         * Creates and begins the event for a run on {@code file}.
+         */
+        public static CsvTransferEvent begin(String direction, String file) {
+            CsvTransferEvent event = new CsvTransferEvent();
+            event.direction = direction;
+            event.file = file;
+            event.startNanos = System.nanoTime();
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Ends the event, fills in size and throughput, and commits it.
+         */
+        public void finish(long rowCount, long rejectedCount, String outcome) {
+            end();
+            if (!shouldCommit()) {
+                return;
+            }
+            this.rows = rowCount;
+            this.rejected = rejectedCount;
+            this.outcome = outcome;
+            try {
+                this.bytes = Files.size(Path.of(file));
+            } catch (IOException e) {
+                this.bytes = 0; // cancelled exports delete their file
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            this.rowsPerSecond = seconds > 0 ? rowCount / seconds : 0;
+            commit();
+        }
+    }
+
+    /**
+     * One SalesAnalytics computation.
+     */
+    @Name("inventory.Analytics")
+    @Label("Sales Analytics")
+    @Category({"Inventory", "Analytics"})
+    @Description("One sales analytics computation")
+    public static final class AnalyticsEvent extends Event {
+        @Label("Computation")
+        public String computation;
+
+        @Label("Detail")
+        @Description("Period, limit or aggregates requested")
+        public String detail;
+
+        @Label("Result Size")
+        @Description("Groups or rows in the result")
+        public long resultSize;
+    }
+
+    /**
+     * Starts a recording with the JDK default settings plus the app's events
+     * when -Dinventory.jfr=&lt;file&gt; is given; it is written to that file at exit.
+     */
+    public static void startRecordingIfRequested() {
+        String file = System.getProperty("inventory.jfr");
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(loadSettings().getSettings());
+            Recording recording = new Recording(settings);
+            recording.setName("inventory");
+            recording.setDestination(Path.of(file));
+            recording.setDumpOnExit(true);
+            recording.start();
+            System.out.println("ℹ️ Flight recording started; it is written to " + file + " at exit.");
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.out.println("❌ Could not start the flight recording.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the shipped inventory.jfc from the classpath.
+     */
+    static Configuration loadSettings() throws IOException, ParseException {
+        InputStream in = Optional.ofNullable(AppEvents.class.getClassLoader().getResourceAsStream(SETTINGS_RESOURCE))
+                .orElseThrow(() -> new IOException(SETTINGS_RESOURCE + " not found on the classpath"));
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
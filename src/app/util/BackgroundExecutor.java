@@ -0,0 +1,93 @@
+package app.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BackgroundExecutor.java
+ * -----------------------
+ * The shared thread pool that runs database and file work for the UI.
+ * <p>
+ * Why we need this:
+ * - Windows used to call DAOs on the Event Dispatch Thread, so every query or
+ *   CSV file froze the whole application until it finished
+ * <p>
+ * The pool is bounded on purpose: SQLite serializes writers and the
+ * {@link ConnectionManager} only has a few reader connections, so more threads
+ * would just queue on the pool instead of here. Threads are daemons and time
+ * out when idle, so an unused pool costs nothing and never blocks exit.
+ * <p>
+ * Size is read from the system property inventory.ui.workers (default: CPU
+ * count, between 2 and 4). Swing code should use app.view.UiTask, which runs
+ * here and hands results back on the EDT.
+ * <p>
+ * Short work a cashier is waiting on (checkouts, single sales, the barcode
+ * catalog) goes through {@link #submitInteractive(Runnable)} instead. It has
+ * its own small pool, so CSV imports and exports filling the shared queue for
+ * minutes never hold up the till.
+ */
+public final class BackgroundExecutor {
+
+    private static final int THREADS = Integer.getInteger("inventory.ui.workers",
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+
+    // Checkout holds the single writer, so more than two threads would only wait
+    private static final int INTERACTIVE_THREADS = 2;
+
+    private static final ThreadPoolExecutor POOL = newPool("background-task-", THREADS);
+    private static final ThreadPoolExecutor INTERACTIVE_POOL = newPool("interactive-task-", INTERACTIVE_THREADS);
+
+    private static ThreadPoolExecutor newPool(String namePrefix, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, namePrefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * Queues {@code task} on the shared pool. Callers usually drop the Future,
+     * so a failure is logged here before it is stored in the Future.
+     */
+    public static Future<?> submit(Runnable task) {
+        return POOL.submit(logFailures(task));
+    }
+
+    /**
+     * Queues {@code task} on the interactive pool, ahead of any bulk work
+     * waiting on the shared one. Keep such tasks short.
+     */
+    public static Future<?> submitInteractive(Runnable task) {
+        return INTERACTIVE_POOL.submit(logFailures(task));
+    }
+
+    private static Runnable logFailures(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                System.out.println("❌ Background task failed: " + e);
+                e.printStackTrace();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Queues {@code task} on the shared pool.
+     */
+    public static <T> Future<T> submit(Callable<T> task) {
+        return POOL.submit(task);
+    }
+}
@@ -0,0 +1,381 @@
+package app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConnectionManager.java
+ * -----------------------
+ * Keeps a small set of long-lived SQLite connections open for the whole session
+ * instead of opening a new one on every DAO call.
+ * <p>
+ * Layout:
+ * - One dedicated writer connection, handed out to one thread at a time
+ * - A bounded pool of reader connections (query_only) for SELECTs
+ * <p>
+ * Every connection is opened once and tuned with WAL journal mode,
+ * synchronous=NORMAL, a page cache and an mmap window. The objects handed out
+ * are thin proxies: calling close() returns the connection to the manager
+ * rather than closing the underlying file handle, so existing
+ * try-with-resources code in the DAOs keeps working unchanged.
+ * <p>
+ * Tuning is read from system properties (all optional):
+ * - inventory.db.readers      number of reader connections (default 4)
+ * - inventory.db.cacheKb      page cache per connection in KiB (default 8192)
+ * - inventory.db.mmapBytes    mmap window in bytes (default 256 MiB)
+ * - inventory.db.busyMs       busy timeout in milliseconds (default 5000)
+ * - inventory.db.stmtCache    prepared statements cached per connection (default 64)
+ * <p>
+ * prepareStatement(sql) on a borrowed connection is served from a per-connection
+ * {@link StatementCache}, so hot statements are compiled once per session.
+ * Every statement handed out is timed by {@link QueryMetrics}.
+ * <p>
+ * {@link #forSnapshot(String, int)} opens a reader-only manager over a
+ * read-only copy of the database (see {@link AnalyticsSnapshot}); such a
+ * manager has no writer and is retired with {@link #closeWhenIdle(Runnable)}.
+ */
+public class ConnectionManager {
+
+    private static final int DEFAULT_READERS = 4;
+    private static final int DEFAULT_CACHE_KB = 8 * 1024;
+    private static final long DEFAULT_MMAP_BYTES = 256L * 1024 * 1024;
+    private static final int DEFAULT_BUSY_MS = 5000;
+    private static final int DEFAULT_STATEMENT_CACHE = 64;
+
+    private final String url;
+    private final boolean snapshot;
+    private final int cacheKb;
+    private final long mmapBytes;
+    private final int busyMs;
+    private final int statementCacheSize;
+
+    private final Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+
+    private final List<Connection> readers = new ArrayList<>();
+    private final BlockingQueue<Connection> idleReaders;
+
+    private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    private volatile boolean closed;
+    private volatile Runnable onIdleClose;  // set by closeWhenIdle
+
+    /**
+     * Opens the writer and all reader connections using the tuning values
+     * from system properties.
+     *
+     * @param url JDBC url of the SQLite database file
+     */
+    public ConnectionManager(String url) throws SQLException {
+        this(url,
+                Integer.getInteger("inventory.db.readers", DEFAULT_READERS),
+                Integer.getInteger("inventory.db.cacheKb", DEFAULT_CACHE_KB),
+                Long.getLong("inventory.db.mmapBytes", DEFAULT_MMAP_BYTES),
+                Integer.getInteger("inventory.db.busyMs", DEFAULT_BUSY_MS),
+                Integer.getInteger("inventory.db.stmtCache", DEFAULT_STATEMENT_CACHE));
+    }
+
+    /**
+     * Opens the writer and {@code readerCount} reader connections.
+     *
+     * @param url         JDBC url of the SQLite database file
+     * @param readerCount number of pooled reader connections (at least 1)
+     * @param cacheKb     page cache size per connection, in KiB
+     * @param mmapBytes   memory-mapped I/O window, in bytes (0 disables mmap)
+     * @param busyMs      how long a connection waits on a lock before SQLITE_BUSY
+     * @param stmtCache   prepared statements kept per connection (0 disables caching)
+     */
+    public ConnectionManager(String url, int readerCount, int cacheKb, long mmapBytes, int busyMs,
+                             int stmtCache) throws SQLException {
+        this(url, false, readerCount, cacheKb, mmapBytes, busyMs, stmtCache);
+    }
+
+    /**
+     * Opens {@code readerCount} reader connections, and no writer, over a
+     * database copy nobody writes to. Other tuning comes from system properties.
+     */
+    public static ConnectionManager forSnapshot(String url, int readerCount) throws SQLException {
+        return new ConnectionManager(url, true, readerCount,
+                Integer.getInteger("inventory.db.cacheKb", DEFAULT_CACHE_KB),
+                Long.getLong("inventory.db.mmapBytes", DEFAULT_MMAP_BYTES),
+                Integer.getInteger("inventory.db.busyMs", DEFAULT_BUSY_MS),
+                Integer.getInteger("inventory.db.stmtCache", DEFAULT_STATEMENT_CACHE));
+    }
+
+    private ConnectionManager(String url, boolean snapshot, int readerCount, int cacheKb, long mmapBytes,
+                              int busyMs, int stmtCache) throws SQLException {
+        this.url = url;
+        this.snapshot = snapshot;
+        this.cacheKb = cacheKb;
+        this.mmapBytes = mmapBytes;
+        this.busyMs = busyMs;
+        this.statementCacheSize = stmtCache;
+
+        int size = Math.max(1, readerCount);
+        this.idleReaders = new ArrayBlockingQueue<>(size);
+
+        try {
+            // Load SQLite JDBC driver once (must be available in classpath)
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite JDBC Driver not found.", e);
+        }
+
+        // The writer goes first so WAL mode is switched on before readers attach
+        this.writer = snapshot ? null : open(false);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection reader = open(true);
+                readers.add(reader);
+                idleReaders.add(reader);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens one physical connection and applies the session pragmas.
+     */
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            if (!snapshot) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+            }
+            stmt.execute("PRAGMA cache_size = -" + cacheKb); // negative value = KiB
+            stmt.execute("PRAGMA mmap_size = " + mmapBytes);
+            stmt.execute("PRAGMA busy_timeout = " + busyMs);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        statementCaches.put(conn, new StatementCache(conn, statementCacheSize, statementCounters));
+        return conn;
+    }
+
+    /**
+     * Borrows the writer connection. Blocks while another thread holds it.
+     * The same thread may borrow it again (nested DAO calls); the connection
+     * is only released once every borrow has been closed.
+     * <p>
+     * Must be closed on the thread that borrowed it.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        ensureOpen();
+        if (writer == null) {
+            throw new SQLException("This is a read-only snapshot; it has no writer connection.");
+        }
+        try {
+            if (!writerLock.tryLock(busyMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Database is busy: timed out waiting for the writer connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection.", e);
+        }
+        return wrap(writer, false);
+    }
+
+    /**
+     * Borrows a reader connection from the pool. Blocks until one is idle.
+     */
+    public Connection getReadConnection() throws SQLException {
+        ensureOpen();
+        Connection reader;
+        try {
+            reader = idleReaders.poll(busyMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection.", e);
+        }
+        if (reader == null) {
+            throw new SQLException("Database is busy: timed out waiting for a reader connection.");
+        }
+        return wrap(reader, true);
+    }
+
+    /**
+     * Hands a borrowed connection back. Any transaction left open is rolled
+     * back so the next borrower always starts in autocommit mode.
+     */
+    private void release(Connection physical, boolean reader) {
+        try {
+            if (!reader && writerLock.getHoldCount() > 1) {
+                return; // still held by an outer borrow on this thread
+            }
+            resetState(physical);
+        } finally {
+            if (reader) {
+                if (!closed) {
+                    idleReaders.offer(physical);
+                    if (onIdleClose != null) {
+                        closeIfIdle();
+                    }
+                }
+            } else {
+                writerLock.unlock();
+            }
+        }
+    }
+
+    private void resetState(Connection physical) {
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to reset pooled connection state.");
+            e.printStackTrace();
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed || onIdleClose != null) {
+            throw new SQLException("Connection manager has been shut down.");
+        }
+    }
+
+    /**
+     * Returns the statement cache hit/miss counters across all connections.
+     */
+    StatementCache.Stats getStatementCacheStats() {
+        return statementCounters.snapshot();
+    }
+
+    /**
+     * Stops lending connections and closes the manager once every borrowed
+     * reader has been returned (immediately if none is out), then runs
+     * {@code onClosed}. Used to retire a {@link #forSnapshot} manager while
+     * reports may still be reading it.
+     */
+    public void closeWhenIdle(Runnable onClosed) {
+        onIdleClose = onClosed;
+        closeIfIdle();
+    }
+
+    private synchronized void closeIfIdle() {
+        Runnable onClosed = onIdleClose;
+        if (closed || onClosed == null || idleReaders.size() < readers.size()) {
+            return;
+        }
+        close();
+        onClosed.run();
+    }
+
+    /**
+     * Closes every physical connection. Borrowed proxies become unusable.
+     */
+    public void close() {
+        closed = true;
+        idleReaders.clear();
+        for (StatementCache cache : statementCaches.values()) {
+            cache.clear();
+        }
+        for (Connection reader : readers) {
+            closeQuietly(reader);
+        }
+        if (writer != null) {
+            closeQuietly(writer);
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Wraps a physical connection so that close() returns it to the manager.
+     */
+    private Connection wrap(Connection physical, boolean reader) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandler(physical, reader));
+    }
+
+    /**
+     * Invocation handler behind every borrowed connection.
+     */
+    private class PooledHandler implements InvocationHandler {
+        private final Connection physical;
+        private final boolean reader;
+        private boolean returned;
+
+        PooledHandler(Connection physical, boolean reader) {
+            this.physical = physical;
+            this.reader = reader;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(physical, reader);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return (reader ? "PooledReader[" : "PooledWriter[") + url + "]";
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (statementCacheSize > 0 && "prepareStatement".equals(method.getName()) && args.length == 1) {
+                PreparedStatement cached = statementCaches.get(physical).prepare((String) args[0], (Connection) proxy);
+                return QueryMetrics.instrument(cached, PreparedStatement.class, (String) args[0], url);
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return switch (method.getName()) {
+                case "prepareStatement" ->
+                        QueryMetrics.instrument((PreparedStatement) result, PreparedStatement.class, (String) args[0], url);
+                case "createStatement" -> QueryMetrics.instrument((Statement) result, Statement.class, null, url);
+                default -> result;
+            };
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package app.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * CsvReader.java
+ * -----------------------
+ * Streaming, parallel CSV reader for the product and sales import paths.
+ * <p>
+ * How it works:
+ * - The file is memory-mapped through a FileChannel; nothing is copied into a String per line
+ * - One quick sequential pass finds record boundaries (quote-aware), so no chunk starts
+ *   inside a quoted field that contains a newline
+ * - Chunks are parsed in parallel on the common ForkJoinPool; each row is exposed to a
+ *   {@link RowMapper} as field offsets into the mapped bytes and only converted on demand
+ * - Parsed chunks are handed to a single writer callback strictly in file order, on the
+ *   calling thread, so the database sees rows in the same order as the file
+ * <p>
+ * Quoting follows RFC 4180: fields may be wrapped in double quotes, quotes inside
+ * are escaped by doubling them, and quoted fields may contain commas and newlines.
+ * Rows the mapper rejects (or that are malformed) are returned as {@link Rejected}
+ * entries with their line number instead of being dropped silently. Blank lines are skipped.
+ * The file is read as UTF-8.
+ */
+public final class CsvReader {
+
+    /** Default amount of file bytes parsed by one task. */
+    public static final int DEFAULT_CHUNK_BYTES = 4 * 1024 * 1024;
+
+    // Window used by the boundary scan; keeps each mapping well below the 2 GB limit
+    private static final long SCAN_WINDOW = 64L * 1024 * 1024;
+
+    private CsvReader() {
+    }
+
+    /**
+     * Formats one field for writing: wrapped in quotes, with inner quotes
+     * doubled, when it contains a comma, quote or line break; unchanged
+     * otherwise. Null becomes an empty field. What this writes reads back
+     * to the same value.
+     */
+    public static String escape(String field) {
+        if (field == null) {
+            return "";
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + field.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Converts one parsed row into a value. Throw IllegalArgumentException
+     * (NumberFormatException included) to reject the row; the message becomes
+     * the rejection reason.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(Row row);
+    }
+
+    /**
+     * A row that could not be imported.
+     *
+     * @param lineNumber 1-based line in the file where the row starts
+     * @param text       the raw row text
+     * @param reason     why it was rejected
+     */
+    public record Rejected(long lineNumber, String text, String reason) {
+    }
+
+    /**
+     * One parsed chunk, in file order.
+     */
+    public record Chunk<T>(int index, List<T> rows, List<Rejected> rejected) {
+    }
+
+    /**
+     * Reads {@code file}, maps every data row with {@code mapper} in parallel and
+     * hands each chunk to {@code writer} in file order on the calling thread.
+     *
+     * @param file      CSV file (UTF-8)
+     * @param hasHeader true to skip the first record
+     * @param mapper    converts a row into a value; must be thread-safe
+     * @param writer    receives chunks in order
+     */
+    public static <T> void read(Path file, boolean hasHeader, RowMapper<T> mapper,
+                                Consumer<Chunk<T>> writer) throws IOException {
+        read(file, hasHeader, DEFAULT_CHUNK_BYTES, mapper, writer);
+    }
+
+    /**
+     * Same as {@link #read(Path, boolean, RowMapper, Consumer)} with an explicit chunk size.
+     */
+    public static <T> void read(Path file, boolean hasHeader, int chunkBytes, RowMapper<T> mapper,
+                                Consumer<Chunk<T>> writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> ranges = split(channel, hasHeader, Math.max(1024, chunkBytes));
+
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            int maxInFlight = pool.getParallelism() + 2; // bounds memory held by parsed chunks
+            Deque<ForkJoinTask<Chunk<T>>> inFlight = new ArrayDeque<>();
+            int next = 0;
+
+            while (next < ranges.size() || !inFlight.isEmpty()) {
+                while (next < ranges.size() && inFlight.size() < maxInFlight) {
+                    long[] range = ranges.get(next);
+                    int index = next++;
+                    inFlight.addLast(pool.submit(() -> parseChunk(channel, index, range, mapper)));
+                }
+                Chunk<T> chunk;
+                try {
+                    chunk = inFlight.removeFirst().join();
+                } catch (RuntimeException e) {
+                    if (e.getCause() instanceof IOException io) {
+                        throw io;
+                    }
+                    throw e;
+                }
+                writer.accept(chunk);
+            }
+        }
+    }
+
+    // Field states of the boundary scan; they follow the same rules as parseChunk
+    private static final int FIELD_START = 0;    // first byte of a field
+    private static final int UNQUOTED = 1;       // inside a field that did not start with a quote
+    private static final int QUOTED = 2;         // inside a quoted field
+    private static final int QUOTE_IN_QUOTED = 3; // just read a quote inside a quoted field
+
+    /**
+     * Finds chunk ranges {start, end, firstLineNumber} that begin on record boundaries.
+     * A quote only opens a quoted field when it is the first byte of the field,
+     * so stray quotes in unquoted fields (15" monitor) do not throw the scan off.
+     */
+    private static List<long[]> split(FileChannel channel, boolean hasHeader, int chunkBytes) throws IOException {
+        long size = channel.size();
+        List<long[]> ranges = new ArrayList<>();
+        int state = FIELD_START;
+        long line = 1;
+        long chunkStart = 0;
+        long chunkLine = 1;
+        boolean skippingHeader = hasHeader;
+
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            int len = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, len);
+            for (int i = 0; i < len; i++) {
+                byte b = buf.get(i);
+                if (b == '\n') {
+                    line++;
+                }
+                switch (state) {
+                    case QUOTED -> {
+                        if (b == '"') {
+                            state = QUOTE_IN_QUOTED;
+                        }
+                        continue; // commas and newlines belong to the field
+                    }
+                    case QUOTE_IN_QUOTED -> {
+                        if (b == '"') {
+                            state = QUOTED; // escaped ""
+                            continue;
+                        }
+                        state = UNQUOTED; // closed; anything up to the next separator is skipped
+                    }
+                    case FIELD_START -> {
+                        if (b == '"') {
+                            state = QUOTED;
+                            continue;
+                        }
+                        state = UNQUOTED;
+                    }
+                    default -> {
+                    }
+                }
+                if (b == ',') {
+                    state = FIELD_START;
+                } else if (b == '\n') {
+                    state = FIELD_START;
+                    long pos = windowStart + i + 1;
+                    if (skippingHeader) {
+                        skippingHeader = false;
+                        chunkStart = pos;
+                        chunkLine = line;
+                    } else if (pos - chunkStart >= chunkBytes) {
+                        ranges.add(new long[]{chunkStart, pos, chunkLine});
+                        chunkStart = pos;
+                        chunkLine = line;
+                    }
+                }
+            }
+        }
+        if (!skippingHeader && chunkStart < size) {
+            ranges.add(new long[]{chunkStart, size, chunkLine});
+        }
+        return ranges;
+    }
+
+    private static <T> Chunk<T> parseChunk(FileChannel channel, int index, long[] range,
+                                           RowMapper<T> mapper) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        List<T> rows = new ArrayList<>();
+        List<Rejected> rejected = new ArrayList<>(0);
+        Row row = new Row(buf);
+        int limit = buf.limit();
+        int pos = 0;
+        long line = range[2];
+
+        while (pos < limit) {
+            int recordStart = pos;
+            long recordLine = line;
+            row.reset();
+            String error = null;
+
+            while (true) {
+                int fieldStart;
+                int fieldEnd;
+                boolean escaped = false;
+
+                if (buf.get(pos) == '"') {
+                    pos++;
+                    fieldStart = pos;
+                    while (true) {
+                        if (pos >= limit) {
+                            error = "Unterminated quoted field";
+                            break;
+                        }
+                        byte b = buf.get(pos);
+                        if (b == '"') {
+                            if (pos + 1 < limit && buf.get(pos + 1) == '"') {
+                                escaped = true;
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        if (b == '\n') {
+                            line++;
+                        }
+                        pos++;
+                    }
+                    fieldEnd = Math.min(pos, limit);
+                    pos = Math.min(pos + 1, limit); // closing quote
+                    if (pos < limit && buf.get(pos) == '\r') {
+                        pos++;
+                    }
+                    if (error == null && pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n') {
+                        error = "Unexpected character after closing quote";
+                    }
+                    // Skip to the end of this field so the next row starts cleanly
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n') {
+                        pos++;
+                    }
+                } else {
+                    fieldStart = pos;
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n') {
+                        pos++;
+                    }
+                    fieldEnd = pos;
+                    if (fieldEnd > fieldStart && buf.get(fieldEnd - 1) == '\r') {
+                        fieldEnd--;
+                    }
+                }
+                row.add(fieldStart, fieldEnd, escaped);
+
+                if (pos < limit && buf.get(pos) == ',') {
+                    pos++;
+                    if (pos >= limit) {
+                        row.add(pos, pos, false); // trailing empty field
+                        break;
+                    }
+                    continue;
+                }
+                if (pos < limit) {
+                    pos++; // '\n'
+                    line++;
+                }
+                break;
+            }
+
+            if (error == null && row.isBlank()) {
+                continue;
+            }
+            if (error != null) {
+                rejected.add(new Rejected(recordLine, text(buf, recordStart, pos), error));
+                continue;
+            }
+            try {
+                T value = mapper.map(row);
+                if (value != null) {
+                    rows.add(value);
+                }
+            } catch (IllegalArgumentException e) {
+                rejected.add(new Rejected(recordLine, text(buf, recordStart, pos), reason(e)));
+            }
+        }
+        return new Chunk<>(index, rows, rejected);
+    }
+
+    private static String reason(IllegalArgumentException e) {
+        if (e instanceof NumberFormatException) {
+            return "Invalid number: " + e.getMessage();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static String text(MappedByteBuffer buf, int start, int end) {
+        while (end > start && (buf.get(end - 1) == '\n' || buf.get(end - 1) == '\r')) {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        buf.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * View of the current record: field offsets into the mapped file.
+     * Reused for every row of a chunk; do not keep a reference to it.
+     */
+    public static final class Row {
+        private final MappedByteBuffer buf;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private boolean[] escaped = new boolean[8];
+        private int count;
+        private byte[] scratch = new byte[64];
+
+        private Row(MappedByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        private void reset() {
+            count = 0;
+        }
+
+        private void add(int start, int end, boolean hasEscapes) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                escaped = Arrays.copyOf(escaped, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            escaped[count] = hasEscapes;
+            count++;
+        }
+
+        private boolean isBlank() {
+            return count == 1 && ends[0] == starts[0];
+        }
+
+        /**
+         * @return number of fields in this row
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Returns the field as a trimmed String, with doubled quotes unescaped.
+         */
+        public String getString(int i) {
+            int start = trimStart(i);
+            int end = trimEnd(i, start);
+            int len = end - start;
+            if (scratch.length < len) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+            }
+            buf.get(start, scratch, 0, len);
+            if (escaped[i]) {
+                int out = 0;
+                for (int k = 0; k < len; k++) {
+                    scratch[out++] = scratch[k];
+                    if (scratch[k] == '"' && k + 1 < len && scratch[k + 1] == '"') {
+                        k++;
+                    }
+                }
+                len = out;
+            }
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Parses the field as an int without creating a String.
+         */
+        public int getInt(int i) {
+            long value = getLong(i);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("out of range for int: " + value);
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses the field as a long without creating a String.
+         */
+        public long getLong(int i) {
+            int start = trimStart(i);
+            int end = trimEnd(i, start);
+            if (start == end) {
+                throw new NumberFormatException("empty field " + (i + 1));
+            }
+            boolean negative = false;
+            int p = start;
+            byte first = buf.get(p);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                p++;
+            }
+            if (p == end || end - p > 18) {
+                return Long.parseLong(getString(i)); // let the JDK report/handle it
+            }
+            long value = 0;
+            for (; p < end; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) {
+                    throw new NumberFormatException("\"" + getString(i) + "\"");
+                }
+                value = value * 10 + d;
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses the field as a double. Plain decimals such as "12.50" are parsed
+         * directly from the bytes (exactly rounded); anything else falls back to
+         * Double.parseDouble.
+         */
+        public double getDouble(int i) {
+            int start = trimStart(i);
+            int end = trimEnd(i, start);
+            if (start == end) {
+                throw new NumberFormatException("empty field " + (i + 1));
+            }
+            int p = start;
+            boolean negative = false;
+            byte first = buf.get(p);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                p++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fraction = -1;
+            for (; p < end; p++) {
+                byte b = buf.get(p);
+                if (b == '.' && fraction < 0) {
+                    fraction = 0;
+                    continue;
+                }
+                int d = b - '0';
+                if (d < 0 || d > 9 || digits >= 15) {
+                    return Double.parseDouble(getString(i));
+                }
+                mantissa = mantissa * 10 + d;
+                digits++;
+                if (fraction >= 0) {
+                    fraction++;
+                }
+            }
+            if (digits == 0) {
+                throw new NumberFormatException("\"" + getString(i) + "\"");
+            }
+            // mantissa < 2^53 and 10^fraction exact, so one division is correctly rounded
+            double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+            return negative ? -value : value;
+        }
+
+        private int trimStart(int i) {
+            if (i >= count) {
+                throw new IllegalArgumentException("Missing field " + (i + 1));
+            }
+            int p = starts[i];
+            while (p < ends[i] && buf.get(p) == ' ') {
+                p++;
+            }
+            return p;
+        }
+
+        private int trimEnd(int i, int start) {
+            int p = ends[i];
+            while (p > start && buf.get(p - 1) == ' ') {
+                p--;
+            }
+            return p;
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+}
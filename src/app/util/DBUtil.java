@@ -1,18 +1,21 @@
 package app.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * DBUtil.java
  * -----------------------
- * This utility class is responsible for establishing a connection
+ * This utility class is responsible for handing out connections
  * to the SQLite database used in the Local Vendor Inventory Tracker system.
  * <p>
  * Why we need this:
  * - To centralize database connection logic
  * - To avoid repeating the same connection code in every DAO class
+ * <p>
+ * Connections come from a shared {@link ConnectionManager}, which keeps them
+ * open for the whole session. Closing a connection obtained here returns it
+ * to the manager instead of closing the database file.
  * Note: This uses a file-based SQLite database named 'inventory.db'.
  */
 public class DBUtil {
@@ -20,28 +23,111 @@ public class DBUtil {
     // URL for connecting to SQLite database file
     private static final String DB_URL = "jdbc:sqlite:inventory.db";
 
+    private static String dbUrl = DB_URL;
+    private static volatile ConnectionManager manager;
+    private static boolean shutdownHookInstalled;
+    private static volatile int generation;
+    private static volatile StatementCache.Stats closedStatementCacheStats = new StatementCache.Stats(0, 0, 0);
+
     /**
-     * Establishes and returns a Connection to the SQLite database.
+     * Returns the writer connection. Use this for INSERT/UPDATE/DELETE and DDL.
+     * Only one thread holds the writer at a time.
      *
      * @return Connection object to interact with the database
+     * @throws SQLException if the database cannot be opened or the writer stays
+     *                      busy (e.g. a long import) for longer than the busy timeout
+     */
+    public static Connection getConnection() throws SQLException {
+        return manager().getWriteConnection();
+    }
+
+    /**
+     * Returns a pooled read-only connection. Use this for SELECT queries so
+     * reads never wait behind the writer.
+     *
+     * @return read-only Connection
+     * @throws SQLException if the database cannot be opened or no reader frees up in time
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return manager().getReadConnection();
+    }
+
+    /**
+     * Returns a read-only connection for reports and analytics. It reads the
+     * {@link AnalyticsSnapshot} copy when one is available, so long scans stay
+     * off the file the tills write to, and the live database otherwise.
+     * Results may lag the latest sales by one snapshot refresh.
+     *
+     * @return read-only Connection
+     * @throws SQLException if neither the snapshot nor the live database can lend a reader
+     */
+    public static Connection getReportingConnection() throws SQLException {
+        Connection snapshot = AnalyticsSnapshot.getConnection();
+        return snapshot != null ? snapshot : getReadConnection();
+    }
+
+    /**
+     * Points the application at a different database file. Any open manager is
+     * shut down first. Mainly used by tools that work on a scratch database.
+     *
+     * @param url JDBC url, e.g. "jdbc:sqlite:/tmp/bench.db"
+     */
+    public static synchronized void useDatabase(String url) {
+        shutdown();
+        dbUrl = url;
+        generation++;
+    }
+
+    /**
+     * Returns a counter that changes whenever {@link #useDatabase(String)} switches
+     * files. In-memory caches compare it to know their contents belong to another database.
+     */
+    public static int getDatabaseGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the JDBC url currently in use.
+     */
+    public static synchronized String getDatabaseUrl() {
+        return dbUrl;
+    }
+
+    /**
+     * Returns prepared-statement cache hit/miss counters for the current session.
+     * Shown in the {@link QueryMetrics} report.
      */
-    public static Connection getConnection() {
-        Connection conn = null;
-        try {
-            // Load SQLite JDBC driver (must be available in classpath)
-            Class.forName("org.sqlite.JDBC");
-
-            // Connect to the database file; it will be created if it doesn't exist
-            conn = DriverManager.getConnection(DB_URL);
-            //System.out.println("✅ Connected to SQLite database successfully.");
-        } catch (ClassNotFoundException e) {
-            System.out.println("❌ SQLite JDBC Driver not found.");
-            e.printStackTrace();
-        } catch (SQLException e) {
-            System.out.println("❌ Connection to SQLite database failed.");
-            e.printStackTrace();
+    static StatementCache.Stats getStatementCacheStats() {
+        ConnectionManager current = manager;
+        return current == null ? closedStatementCacheStats : current.getStatementCacheStats();
+    }
+
+    /**
+     * Closes all pooled connections. The next call to getConnection() reopens them.
+     */
+    public static synchronized void shutdown() {
+        if (manager != null) {
+            closedStatementCacheStats = manager.getStatementCacheStats(); // still reported at exit
+            manager.close();
+            manager = null;
         }
+    }
 
-        return conn;
+    private static ConnectionManager manager() throws SQLException {
+        ConnectionManager current = manager;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DBUtil.class) {
+            if (manager == null) {
+                manager = new ConnectionManager(dbUrl);
+                if (!shutdownHookInstalled) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(DBUtil::shutdown, "db-shutdown"));
+                    shutdownHookInstalled = true;
+                }
+                //System.out.println("✅ Connected to SQLite database successfully.");
+            }
+            return manager;
+        }
     }
 }
@@ -0,0 +1,349 @@
+package app.util;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.InvocationEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EdtMonitor.java
+ * -----------------------
+ * Measures how long the Event Dispatch Thread spends on each event and
+ * reports the events that freeze the UI.
+ * <p>
+ * Why we need this:
+ * - "The POS hangs" cannot be fixed without knowing which window and which
+ *   call held the EDT; this turns a hang into a named stack trace
+ * <p>
+ * A custom {@link EventQueue} times every dispatch. A watchdog thread checks
+ * the running dispatch a few times per threshold; once it runs longer than
+ * the threshold the watchdog captures the EDT's stack while it is still stuck,
+ * so the stall is attributed to the code that caused it (for example
+ * ViewAllProductsWindow.updateTable -> ProductDAO.getAllProducts) rather than
+ * to the event loop. When the dispatch ends, its duration goes into a
+ * log-scale histogram and, if it stalled, into the offender table and the log.
+ * <p>
+ * Time spent in a modal dialog's event loop (JOptionPane etc.) is not counted
+ * against the event that opened the dialog; the events dispatched inside it
+ * are measured on their own.
+ * <p>
+ * Settings (system properties, all optional):
+ * - inventory.edt.monitor   false disables the monitor (default true)
+ * - inventory.edt.stallMs   stall threshold in milliseconds (default 100)
+ */
+public final class EdtMonitor {
+
+    private static final int DEFAULT_STALL_MS = 100;
+    private static final int MAX_LOGGED_FRAMES = 12;
+    private static final int TOP_FRAMES = 3;
+    private static final int MAX_DEPTH = 64;
+
+    // Histogram bucket i counts dispatches shorter than BUCKET_LIMITS_MS[i] (last: everything longer)
+    private static final long[] BUCKET_LIMITS_MS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048, 4096, Long.MAX_VALUE};
+
+    /**
+     * Point-in-time view of the dispatch latencies.
+     *
+     * @param buckets dispatch counts per bucket of {@link #bucketLimitsMillis()}
+     */
+    public record Stats(long events, long stalls, long maxMillis, long[] buckets) {
+
+        /**
+         * Upper bound of the bucket holding the given percentile (0-100), in ms.
+         */
+        public long percentileMillis(double percentile) {
+            long rank = (long) Math.ceil(events * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(BUCKET_LIMITS_MS[i], maxMillis);
+                }
+            }
+            return 0;
+        }
+
+        public static long[] bucketLimitsMillis() {
+            return BUCKET_LIMITS_MS.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EdtMonitor{events=%d, stalls=%d, p50<=%dms, p99<=%dms, max=%dms}",
+                    events, stalls, percentileMillis(50), percentileMillis(99), maxMillis);
+        }
+    }
+
+    /**
+     * Stalls attributed to one place in the code.
+     *
+     * @param location "outermost app frame -> innermost app frame", or the event
+     *                 and window when no stack was captured
+     */
+    public record Offender(String location, long stalls, long totalMillis, long maxMillis) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d stalls, %d ms total, %d ms max", location, stalls, totalMillis, maxMillis);
+        }
+    }
+
+    private static final class OffenderCounters {
+        final LongAdder stalls = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        volatile long maxMillis;
+    }
+
+    private static volatile EdtMonitor instance;
+
+    private final long stallNanos;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_LIMITS_MS.length);
+    private final LongAdder stalls = new LongAdder();
+    private volatile long maxNanos;
+    private final Map<String, OffenderCounters> offenders = new ConcurrentHashMap<>();
+
+    // Shared between the EDT and the watchdog
+    private volatile Thread edt;
+    private volatile long currentId;        // dispatch being timed, 0 when idle
+    private volatile long currentStart;
+    private volatile long capturedId;
+    private volatile StackTraceElement[] capturedStack;
+
+    private EdtMonitor(long stallMillis) {
+        this.stallNanos = stallMillis * 1_000_000L;
+    }
+
+    /**
+     * Installs the monitor on the system event queue. Call once at startup,
+     * before the first window is created; later calls do nothing.
+     */
+    public static synchronized void install() {
+        if (instance != null || !Boolean.parseBoolean(System.getProperty("inventory.edt.monitor", "true"))) {
+            return;
+        }
+        EdtMonitor monitor = new EdtMonitor(Math.max(1, Integer.getInteger("inventory.edt.stallMs", DEFAULT_STALL_MS)));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor.new TimingEventQueue());
+        monitor.startWatchdog();
+        Runtime.getRuntime().addShutdownHook(new Thread(EdtMonitor::printReport, "edt-monitor-report"));
+        instance = monitor;
+        System.out.println("ℹ️ EDT monitor installed (stall threshold " + monitor.stallNanos / 1_000_000 + " ms).");
+    }
+
+    /**
+     * @return current latency statistics, or null if the monitor is not installed
+     */
+    public static Stats getStats() {
+        EdtMonitor monitor = instance;
+        return monitor == null ? null : monitor.snapshot();
+    }
+
+    /**
+     * @return the {@code limit} places with the most total stall time
+     */
+    public static List<Offender> getTopOffenders(int limit) {
+        EdtMonitor monitor = instance;
+        if (monitor == null) {
+            return List.of();
+        }
+        List<Offender> list = new ArrayList<>();
+        monitor.offenders.forEach((location, c) ->
+                list.add(new Offender(location, c.stalls.sum(), c.totalMillis.sum(), c.maxMillis)));
+        list.sort(Comparator.comparingLong(Offender::totalMillis).reversed());
+        return list.subList(0, Math.min(limit, list.size()));
+    }
+
+    /**
+     * Prints the histogram and the worst offenders (also runs at exit).
+     */
+    public static void printReport() {
+        Stats stats = getStats();
+        if (stats == null || stats.events() == 0) {
+            return;
+        }
+        System.out.println("📊 " + stats);
+        long lower = 0;
+        for (int i = 0; i < BUCKET_LIMITS_MS.length; i++) {
+            if (stats.buckets()[i] > 0) {
+                String range = BUCKET_LIMITS_MS[i] == Long.MAX_VALUE
+                        ? ">= " + lower + " ms"
+                        : lower + "-" + BUCKET_LIMITS_MS[i] + " ms";
+                System.out.printf("   %-14s %,d%n", range, stats.buckets()[i]);
+            }
+            lower = BUCKET_LIMITS_MS[i];
+        }
+        for (Offender offender : getTopOffenders(10)) {
+            System.out.println("   ⚠️ " + offender);
+        }
+    }
+
+    private Stats snapshot() {
+        long[] counts = new long[buckets.length()];
+        long events = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            events += counts[i];
+        }
+        return new Stats(events, stalls.sum(), maxNanos / 1_000_000, counts);
+    }
+
+    /**
+     * Times each dispatch; nested dispatches (modal loops) pause the outer one.
+     * All fields except the volatiles above are touched only on the EDT.
+     */
+    private class TimingEventQueue extends EventQueue {
+        private final long[] starts = new long[MAX_DEPTH];
+        private final long[] ids = new long[MAX_DEPTH];
+        private int depth;
+        private long nextId;
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            if (depth == MAX_DEPTH) {
+                super.dispatchEvent(event);
+                return;
+            }
+            long start = System.nanoTime();
+            if (depth > 0 && ids[depth - 1] != 0) {
+                // The outer event opened a modal loop: count what it did so far, stop its clock
+                finish(ids[depth - 1], start - starts[depth - 1], null);
+                ids[depth - 1] = 0;
+            }
+            int level = depth++;
+            long id = ++nextId;
+            starts[level] = start;
+            ids[level] = id;
+            edt = Thread.currentThread();
+            currentStart = start;
+            currentId = id;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                depth--;
+                currentId = 0;
+                if (ids[level] != 0) {
+                    finish(id, System.nanoTime() - start, event);
+                }
+            }
+        }
+    }
+
+    private void finish(long id, long elapsedNanos, AWTEvent event) {
+        long millis = elapsedNanos / 1_000_000;
+        int bucket = 0;
+        while (millis >= BUCKET_LIMITS_MS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        if (elapsedNanos > maxNanos) {
+            maxNanos = elapsedNanos;
+        }
+        if (elapsedNanos < stallNanos) {
+            return;
+        }
+
+        StackTraceElement[] stack = capturedId == id ? capturedStack : null;
+        String location = stack != null ? attribute(stack) : describe(event);
+        stalls.increment();
+        OffenderCounters counters = offenders.computeIfAbsent(location, k -> new OffenderCounters());
+        counters.stalls.increment();
+        counters.totalMillis.add(millis);
+        if (millis > counters.maxMillis) {
+            counters.maxMillis = millis;
+        }
+
+        System.out.println("⚠️ EDT stall: " + millis + " ms in " + location);
+        if (stack != null) {
+            // Where the EDT was blocked, then our own frames that led there
+            int logged = 0;
+            for (int i = 0; i < stack.length && logged < MAX_LOGGED_FRAMES; i++) {
+                if (i < TOP_FRAMES || stack[i].getClassName().startsWith("app.")) {
+                    System.out.println("      at " + stack[i]);
+                    logged++;
+                }
+            }
+        }
+    }
+
+    private void startWatchdog() {
+        long pollMillis = Math.max(5, stallNanos / 1_000_000 / 4);
+        Thread watchdog = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long id = currentId;
+                Thread thread = edt;
+                if (id == 0 || id == capturedId || thread == null
+                        || System.nanoTime() - currentStart < stallNanos) {
+                    continue;
+                }
+                StackTraceElement[] stack = thread.getStackTrace();
+                if (currentId == id) { // still the same dispatch, so the stack belongs to it
+                    capturedStack = stack;
+                    capturedId = id;
+                }
+            }
+        }, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * "BillingWindow.handleConfirmSale -> CheckoutService.checkout": the outermost
+     * and innermost frames of our own code, i.e. which window and which call.
+     */
+    private static String attribute(StackTraceElement[] stack) {
+        StackTraceElement innermost = null;
+        StackTraceElement outermost = null;
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("app.") && !frame.getClassName().startsWith("app.util.EdtMonitor")) {
+                if (innermost == null) {
+                    innermost = frame;
+                }
+                // Listener lambdas say little; prefer the named method they call
+                if (outermost == null || !frame.getMethodName().startsWith("lambda$")) {
+                    outermost = frame;
+                }
+            }
+        }
+        if (innermost == null) {
+            return stack.length > 0 ? shortName(stack[0]) : "unknown";
+        }
+        return innermost == outermost
+                ? shortName(innermost)
+                : shortName(outermost) + " -> " + shortName(innermost);
+    }
+
+    private static String shortName(StackTraceElement frame) {
+        String cls = frame.getClassName();
+        return cls.substring(cls.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+    /**
+     * Fallback when the stall ended before the watchdog saw it: name the event
+     * and the window it was sent to.
+     */
+    private static String describe(AWTEvent event) {
+        if (event == null) {
+            return "event before a modal dialog";
+        }
+        String name = event.getClass().getSimpleName();
+        Object source = event.getSource();
+        Window window = source instanceof Window w ? w
+                : source instanceof Component c ? SwingUtilities.getWindowAncestor(c) : null;
+        if (window != null) {
+            return name + " in " + window.getClass().getSimpleName();
+        }
+        if (event instanceof InvocationEvent) {
+            return name + " (invokeLater)";
+        }
+        return name + " from " + (source == null ? "null" : source.getClass().getSimpleName());
+    }
+}
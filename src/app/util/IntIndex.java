@@ -0,0 +1,197 @@
+package app.util;
+
+import java.util.Arrays;
+
+/**
+ * IntIndex.java
+ * -----------------------
+ * Open-addressing hash index from int keys to dense slots 0..size-1.
+ * <p>
+ * Why we need this:
+ * - Lets hot loops keep per-key data in plain arrays (double[], long[], Object[])
+ *   indexed by slot, without boxing keys into Integer or allocating map entries
+ * <p>
+ * This is the one int-keyed hash table in the app; {@link IntObjectMap} keeps
+ * its values in an array indexed by the slots of an IntIndex.
+ * <p>
+ * Removal uses backward-shift deletion, so there are no tombstones and lookups
+ * stay short after many removes. To keep slots dense, the key holding the last
+ * slot moves into the removed one. Not thread-safe.
+ */
+public class IntIndex {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] slots;      // slot for the key at the same position, EMPTY if unused
+    private int[] slotKeys;   // key per slot, in slot order
+    private int mask;
+    private int size;
+
+    public IntIndex() {
+        this(16);
+    }
+
+    /**
+     * @param expectedKeys number of keys expected, used to size the table
+     */
+    public IntIndex(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys * 2 - 1)) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        slotKeys = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the slot for {@code key}, or -1 if the key has not been added.
+     */
+    public int get(int key) {
+        int i = mix(key) & mask;
+        while (true) {
+            int slot = slots[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (keys[i] == key) {
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the slot for {@code key}, adding it with the next free slot if absent.
+     * New slots are numbered in insertion order, so {@code slot == size() - 1}
+     * right after an insert.
+     */
+    public int getOrAdd(int key) {
+        int i = mix(key) & mask;
+        while (true) {
+            int slot = slots[i];
+            if (slot == EMPTY) {
+                keys[i] = key;
+                slots[i] = size;
+                slotKeys[size] = key;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return size - 1;
+            }
+            if (keys[i] == key) {
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes {@code key}. The key that held the last slot ({@code size() - 1}
+     * before the call) takes over the removed slot, so callers keeping per-slot
+     * arrays must move that entry the same way.
+     *
+     * @return the slot the key had, or -1 if it was not present
+     */
+    public int remove(int key) {
+        int i = mix(key) & mask;
+        while (true) {
+            int slot = slots[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (keys[i] == key) {
+                shiftBack(i);
+                int last = --size;
+                if (slot != last) {
+                    int movedKey = slotKeys[last];
+                    slots[position(movedKey)] = slot;
+                    slotKeys[slot] = movedKey;
+                }
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * @return number of keys added
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key stored for each slot, in slot order.
+     */
+    public int[] keysBySlot() {
+        return Arrays.copyOf(slotKeys, size);
+    }
+
+    /**
+     * Table position of a key that is known to be present.
+     */
+    private int position(int key) {
+        int i = mix(key) & mask;
+        while (keys[i] != key || slots[i] == EMPTY) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Closes the gap left at {@code gap} by moving later entries of the same
+     * probe run back, so no lookup chain is broken.
+     */
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (slots[i] == EMPTY) {
+                break;
+            }
+            int home = mix(keys[i]) & mask;
+            // Move the entry if its home bucket is not within (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+        slots[gap] = EMPTY;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new int[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        slotKeys = Arrays.copyOf(slotKeys, oldKeys.length * 2);
+        Arrays.fill(slots, EMPTY);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] != EMPTY) {
+                int i = mix(oldKeys[j]) & mask;
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    // Spreads sequential ids across the table (Fibonacci hashing)
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,101 @@
+package app.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * IntObjectMap.java
+ * -----------------------
+ * Hash map from primitive int keys to objects.
+ * <p>
+ * Why we need this:
+ * - A HashMap&lt;Integer, V&gt; boxes every key and allocates an entry per mapping;
+ *   this map finds the key's slot in an {@link IntIndex} and keeps the values in
+ *   an Object[] indexed by slot, so a lookup is a couple of array reads
+ * <p>
+ * Values are packed into slots 0..size-1, so iterating never visits empty
+ * buckets. Null values are not allowed. Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+    private final IntIndex index;
+    private Object[] values;   // value per IntIndex slot
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of entries expected, used to size the table
+     */
+    public IntObjectMap(int expectedSize) {
+        index = new IntIndex(expectedSize);
+        values = new Object[Math.max(4, expectedSize)];
+    }
+
+    /**
+     * Returns the value for {@code key}, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = index.get(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Associates {@code value} with {@code key}.
+     *
+     * @return the previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int slot = index.getOrAdd(key);
+        if (slot == values.length) {
+            values = Arrays.copyOf(values, slot * 2);
+        }
+        V old = (V) values[slot];
+        values[slot] = value;
+        return old;
+    }
+
+    /**
+     * Removes the mapping for {@code key}.
+     *
+     * @return the removed value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int last = index.size() - 1;
+        int slot = index.remove(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        values[slot] = values[last]; // the index moved the last key into this slot
+        values[last] = null;
+        return old;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, index.size(), null);
+        index.clear();
+    }
+
+    /**
+     * Calls {@code action} for every value, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        int size = index.size();
+        for (int slot = 0; slot < size; slot++) {
+            action.accept((V) values[slot]);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package app.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * QueryMetrics.java
+ * -----------------------
+ * Times every SQL statement run through {@link DBUtil} and keeps per-statement
+ * latency histograms, row counts and a slow-query log.
+ * <p>
+ * Why we need this:
+ * - The DAOs only print a stack trace on failure; nothing tells us which SQL
+ *   the time actually goes into
+ * <p>
+ * {@link ConnectionManager} hands every Statement/PreparedStatement through
+ * {@link #instrument}, which wraps it in a timing proxy. Statements are keyed
+ * by normalized SQL (whitespace collapsed, literals and IN lists replaced by
+ * ?), so "WHERE id = 7" and "WHERE id = 8" count as one statement. For a query
+ * the time runs from executeQuery through the last ResultSet.next(), and the
+ * rows read are counted; for updates it is the execute call and the rows
+ * changed.
+ * <p>
+ * Latencies go into log-linear histograms (32 sub-buckets per power of two,
+ * so any percentile is within about 3%, as in HdrHistogram). A statement
+ * slower than the threshold is appended to the slow-query log with its
+ * EXPLAIN QUERY PLAN; the plan is taken once per statement, on a separate
+ * connection and a background thread, so the caller is not slowed down further.
+ * <p>
+ * Settings (system properties, all optional):
+ * - inventory.db.metrics   false disables the instrumentation (default true)
+ * - inventory.db.slowMs    slow-query threshold in milliseconds (default 50)
+ * - inventory.db.slowLog   slow-query log file (default slow-queries.log)
+ * <p>
+ * {@link #getSnapshot()} / {@link #report()} give the numbers on demand;
+ * the top statements are also printed at exit. Each execution is also emitted
+ * as a Flight Recorder {@link AppEvents.SqlEvent}.
+ */
+public final class QueryMetrics {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("inventory.db.metrics", "true"));
+    private static final long SLOW_NANOS = Math.max(1, Integer.getInteger("inventory.db.slowMs", 50)) * 1_000_000L;
+    private static final Path SLOW_LOG = Path.of(System.getProperty("inventory.db.slowLog", "slow-queries.log"));
+
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final int MAX_NORMALIZED_CACHE = 10_000;
+    private static final int REPORT_LIMIT = 10;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![A-Za-z_0-9.])-?\\d+(?:\\.\\d+)?");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?:, ?\\?)*\\)");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?i)^(SELECT|INSERT|UPDATE|DELETE|REPLACE|WITH)\\b.*");
+
+    /**
+     * Metrics of one normalized statement at a point in time.
+     */
+    public record QueryStats(String sql, long count, long errors, long rows, double totalMillis,
+                             double p50Millis, double p99Millis, double maxMillis) {
+
+        public double meanMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,9d x  total %,10.1f ms  mean %8.3f  p50 %8.3f  p99 %8.3f  max %8.1f ms  rows %,d%s  %s",
+                    count, totalMillis, meanMillis(), p50Millis, p99Millis, maxMillis, rows,
+                    errors > 0 ? "  errors " + errors : "", sql);
+        }
+    }
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private static final Set<String> explained = ConcurrentHashMap.newKeySet();
+    private static final LongAdder slowQueries = new LongAdder();
+    private static final ExecutorService slowLogWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "slow-query-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(QueryMetrics::printReport, "query-metrics-report"));
+        }
+    }
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * Wraps a statement so its executions are recorded. Returns it unchanged
+     * when the instrumentation is disabled.
+     *
+     * @param sql the SQL of a PreparedStatement, or null for a plain Statement
+     *            (its SQL is taken from each execute call)
+     * @param url JDBC url of the database, used to EXPLAIN slow statements
+     */
+    static <S extends Statement> S instrument(S statement, Class<S> type, String sql, String url) {
+        if (!ENABLED || statement == null) {
+            return statement;
+        }
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(statement, sql, url)));
+    }
+
+    /**
+     * @return metrics for every statement seen, most total time first
+     */
+    public static List<QueryStats> getSnapshot() {
+        List<QueryStats> list = new ArrayList<>();
+        entries.forEach((sql, entry) -> list.add(entry.snapshot(sql)));
+        list.sort(Comparator.comparingDouble(QueryStats::totalMillis).reversed());
+        return list;
+    }
+
+    /**
+     * @return number of executions over the slow-query threshold so far
+     */
+    public static long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    /**
+     * Forgets everything recorded so far (the slow-query log file is kept).
+     */
+    public static void reset() {
+        entries.clear();
+        explained.clear();
+        slowQueries.reset();
+    }
+
+    /**
+     * Returns the full snapshot as text, one statement per line.
+     */
+    public static String report() {
+        List<QueryStats> stats = getSnapshot();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Query metrics at %s: %d statements, %d slow (>= %d ms, see %s)%n",
+                LocalDateTime.now().withNano(0), stats.size(), getSlowQueryCount(), SLOW_NANOS / 1_000_000, SLOW_LOG));
+        sb.append(DBUtil.getStatementCacheStats()).append(System.lineSeparator());
+        for (QueryStats s : stats) {
+            sb.append(s).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prints the statements with the most total time (also runs at exit).
+     */
+    public static void printReport() {
+        List<QueryStats> stats = getSnapshot();
+        if (stats.isEmpty()) {
+            return;
+        }
+        System.out.println("📊 Query metrics: " + stats.size() + " statements, " + getSlowQueryCount() + " slow");
+        System.out.println("   " + DBUtil.getStatementCacheStats());
+        for (QueryStats s : stats.subList(0, Math.min(REPORT_LIMIT, stats.size()))) {
+            System.out.println("   " + s);
+        }
+    }
+
+    /**
+     * "SELECT * FROM products WHERE id = 7 AND name = 'x'" -> "SELECT * FROM products WHERE id = ? AND name = ?"
+     */
+    static String normalize(String sql) {
+        String cached = normalized.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String key = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        key = STRING_LITERAL.matcher(key).replaceAll("?");
+        key = NUMBER_LITERAL.matcher(key).replaceAll("?");
+        key = IN_LIST.matcher(key).replaceAll("IN (?...)");
+        if (normalized.size() < MAX_NORMALIZED_CACHE) {
+            normalized.put(sql, key);
+        }
+        return key;
+    }
+
+    private static void record(String rawSql, String url, long nanos, long rows, boolean error,
+                               AppEvents.SqlEvent event) {
+        String sql = normalize(rawSql);
+        entries.computeIfAbsent(sql, k -> new Entry()).add(nanos, rows, error);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = sql;
+            event.operation = callingOperation();
+            event.rows = rows;
+            event.failed = error;
+            event.commit();
+        }
+        if (nanos >= SLOW_NANOS) {
+            slowQueries.increment();
+            System.out.printf("⚠️ Slow query: %.1f ms, %d rows: %s%n", nanos / 1e6, rows, sql);
+            String thread = Thread.currentThread().getName();
+            LocalDateTime when = LocalDateTime.now();
+            slowLogWriter.execute(() -> logSlowQuery(when, thread, rawSql, sql, url, nanos, rows));
+        }
+    }
+
+    /**
+     * "ProductDAO.decrementStockBatch": the innermost app frame outside app.util
+     * on the current stack. Only looked up for events that are being recorded.
+     */
+    private static String callingOperation() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("app.") && !f.getClassName().startsWith("app.util."))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+                .orElse(null));
+    }
+
+    /**
+     * Appends one slow execution to the log; the plan is looked up the first
+     * time a statement is slow.
+     */
+    private static void logSlowQuery(LocalDateTime when, String thread, String rawSql, String sql,
+                                     String url, long nanos, long rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s  %.1f ms  rows=%d  [%s]%n  SQL: %s%n",
+                LOG_TIME.format(when), nanos / 1e6, rows, thread, sql));
+        if (explained.add(sql) && EXPLAINABLE.matcher(sql).matches()) {
+            for (String line : explain(rawSql, url)) {
+                sb.append("  PLAN: ").append(line).append(System.lineSeparator());
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(SLOW_LOG,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(sb.toString());
+        } catch (IOException e) {
+            System.out.println("❌ Could not write slow-query log " + SLOW_LOG);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN on its own connection, with every parameter bound to NULL.
+     */
+    private static List<String> explain(String sql, String url) {
+        List<String> lines = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int params = stmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                stmt.setNull(i, Types.NULL);
+            }
+            Map<Integer, Integer> depth = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int level = depth.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depth.put(rs.getInt("id"), level);
+                    lines.add("  ".repeat(level) + rs.getString("detail"));
+                }
+            }
+        } catch (SQLException e) {
+            lines.add("(no plan: " + e.getMessage() + ")");
+        }
+        return lines;
+    }
+
+    /**
+     * Counters and histogram of one normalized statement.
+     */
+    private static final class Entry {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final Histogram histogram = new Histogram();
+
+        void add(long nanos, long rowCount, boolean error) {
+            count.increment();
+            totalNanos.add(nanos);
+            rows.add(rowCount);
+            if (error) {
+                errors.increment();
+            }
+            histogram.record(nanos / 1_000); // microseconds
+        }
+
+        QueryStats snapshot(String sql) {
+            return new QueryStats(sql, count.sum(), errors.sum(), rows.sum(), totalNanos.sum() / 1e6,
+                    histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3, histogram.max() / 1e3);
+        }
+    }
+
+    /**
+     * Log-linear histogram of non-negative values: exact below 64, then 32
+     * equal sub-buckets per power of two. Percentiles report the highest
+     * value of the bucket they fall into.
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKETS = 32;
+        private static final int LINEAR = 2 * SUB_BUCKETS;
+        private static final int SIZE = LINEAR + 40 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+        private volatile long max;
+
+        void record(long value) {
+            counts.incrementAndGet(index(Math.max(0, value)));
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        long max() {
+            return max;
+        }
+
+        long percentile(double percentile) {
+            long total = 0;
+            long[] snapshot = new long[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < SIZE; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return 0;
+        }
+
+        private static int index(long value) {
+            if (value < LINEAR) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - 5; // value >> shift is in [32, 64)
+            int index = LINEAR + (shift - 1) * SUB_BUCKETS + (int) (value >> shift) - SUB_BUCKETS;
+            return Math.min(index, SIZE - 1);
+        }
+
+        private static long highestValue(int index) {
+            if (index < LINEAR) {
+                return index;
+            }
+            int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+            long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+
+    /**
+     * An execution whose time is still running: a query whose ResultSet is
+     * being read. Recorded once, when the rows run out or it is closed.
+     */
+    private static final class Pending {
+        final String sql;
+        final String url;
+        final AppEvents.SqlEvent event;
+        long nanos;
+        long rows;
+        boolean done;
+
+        Pending(String sql, String url, long nanos, AppEvents.SqlEvent event) {
+            this.sql = sql;
+            this.url = url;
+            this.nanos = nanos;
+            this.event = event;
+        }
+
+        void finish() {
+            if (!done) {
+                done = true;
+                record(sql, url, nanos, rows, false, event);
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind every instrumented statement.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final String url;
+        private String batchSql;  // first SQL added to a plain Statement's batch
+        private Pending pending;
+
+        StatementHandler(Statement target, String sql, String url) {
+            this.target = target;
+            this.sql = sql;
+            this.url = url;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "close" -> finishPending();
+                case "addBatch" -> {
+                    if (batchSql == null && args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                }
+            }
+            if (!name.startsWith("execute")) {
+                return call(method, args);
+            }
+
+            finishPending();
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : "executeBatch".equals(name) && sql == null ? batchSql
+                    : sql;
+            if ("executeBatch".equals(name)) {
+                batchSql = null;
+            }
+            AppEvents.SqlEvent event = new AppEvents.SqlEvent();
+            event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable e) {
+                if (statementSql != null) {
+                    record(statementSql, url, System.nanoTime() - start, 0, true, event);
+                }
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (statementSql == null) {
+                return result;
+            }
+            if (result instanceof ResultSet rs) {
+                pending = new Pending(statementSql, url, elapsed, event);
+                return wrapResultSet(rs, pending);
+            }
+            record(statementSql, url, elapsed, rowCount(result), false, event);
+            return result;
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static long rowCount(Object result) {
+            if (result instanceof Integer n) {
+                return Math.max(0, n);
+            }
+            if (result instanceof Long n) {
+                return Math.max(0, n);
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int n : counts) {
+                    rows += Math.max(0, n);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long n : counts) {
+                    rows += Math.max(0, n);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet rs, Pending pending) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "next" -> {
+                            long start = System.nanoTime();
+                            boolean more;
+                            try {
+                                more = rs.next();
+                            } finally {
+                                pending.nanos += System.nanoTime() - start;
+                            }
+                            if (more) {
+                                pending.rows++;
+                            } else {
+                                pending.finish();
+                            }
+                            return more;
+                        }
+                        case "close" -> pending.finish();
+                    }
+                    try {
+                        return method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
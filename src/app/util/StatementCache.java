@@ -0,0 +1,209 @@
+package app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementCache.java
+ * -----------------------
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * <p>
+ * Why we need this:
+ * - SQLite compiles every statement on prepare; hot queries such as
+ *   getProductById or recordSale would otherwise be recompiled on each call
+ * <p>
+ * Statements handed out are proxies. Calling close() clears parameters,
+ * closes the last ResultSet and puts the statement back in the cache instead
+ * of finalizing it. A connection is only ever used by one thread at a time
+ * (see {@link ConnectionManager}), so the cache itself is not synchronized;
+ * only the shared hit/miss counters are.
+ */
+class StatementCache {
+
+    /**
+     * Hit/miss/eviction counters shared by every cache of one ConnectionManager.
+     */
+    static class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        Stats snapshot() {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    /**
+     * Point-in-time view of the statement cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StatementCache{hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%}",
+                    hits, misses, evictions, hitRate() * 100);
+        }
+    }
+
+    private final Connection physical;
+    private final Counters counters;
+    private final Map<String, Entry> entries;
+
+    StatementCache(Connection physical, int capacity, Counters counters) {
+        this.physical = physical;
+        this.counters = counters;
+        // accessOrder=true turns LinkedHashMap into an LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > capacity && !eldest.getValue().inUse) {
+                    counters.evictions.increment();
+                    closeQuietly(eldest.getValue().statement);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached statement for the SQL text, preparing it on a miss.
+     *
+     * @param sql   SQL text (the cache key)
+     * @param owner the pooled connection proxy the caller holds, returned by getConnection()
+     */
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry == null) {
+            counters.misses.increment();
+            entry = new Entry(physical.prepareStatement(sql));
+            entries.put(sql, entry);
+        } else if (entry.inUse) {
+            // Same SQL already borrowed on this connection (nested call); don't share it
+            counters.misses.increment();
+            return physical.prepareStatement(sql);
+        } else {
+            counters.hits.increment();
+        }
+        entry.inUse = true;
+        return wrap(entry, owner);
+    }
+
+    /**
+     * Finalizes every cached statement.
+     */
+    void clear() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            closeQuietly(it.next().statement);
+            it.remove();
+        }
+    }
+
+    private void giveBack(Entry entry) {
+        try {
+            if (entry.lastResult != null) {
+                entry.lastResult.close();
+                entry.lastResult = null;
+            }
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.inUse = false;
+        } catch (SQLException e) {
+            // Statement is in an unknown state; drop it rather than reuse it
+            entries.values().remove(entry);
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private PreparedStatement wrap(Entry entry, Connection owner) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedHandler(entry, owner));
+    }
+
+    private static class Entry {
+        final PreparedStatement statement;
+        ResultSet lastResult;
+        boolean inUse;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Invocation handler behind every statement borrowed from the cache.
+     */
+    private class CachedHandler implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private boolean returned;
+
+        CachedHandler(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned;
+                }
+                case "getConnection" -> {
+                    return owner;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been returned to the cache.");
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet rs) {
+                entry.lastResult = rs;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package app.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * TrigramIndex.java
+ * -----------------------
+ * Case-insensitive substring search over a fixed list of texts.
+ * <p>
+ * Why we need this:
+ * - Filtering by "name contains" used to lowercase and scan every product on
+ *   every keystroke; this index lowercases once and keeps, for every three
+ *   character sequence, the sorted list of texts containing it
+ * <p>
+ * A query of three or more characters only checks the texts in the shortest
+ * posting list of its trigrams. When a query extends the previous one (the user
+ * typed another character) only the previous matches are checked again.
+ * Shorter queries are answered from a 64-bit character signature per text,
+ * which rules out most texts without looking at them.
+ * Documents are identified by their position in the list given to the constructor.
+ * Not thread-safe: it remembers the previous query.
+ */
+public class TrigramIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] lowered;
+    private final long[] signatures;   // one bit per character class present in the text
+    private final Map<Long, int[]> postings;
+
+    private String lastQuery;
+    private int[] lastMatches;
+
+    public TrigramIndex(List<String> texts) {
+        lowered = new String[texts.size()];
+        signatures = new long[lowered.length];
+        Map<Long, int[]> building = new HashMap<>();
+
+        for (int doc = 0; doc < lowered.length; doc++) {
+            String text = texts.get(doc) == null ? "" : texts.get(doc).toLowerCase(Locale.ROOT);
+            lowered[doc] = text;
+            signatures[doc] = signature(text);
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long key = trigram(text, i);
+                int[] list = building.get(key);
+                if (list == null) {
+                    list = new int[4];
+                    building.put(key, list);
+                }
+                // list[0] holds the count; skip repeats of the trigram within one doc
+                int count = list[0];
+                if (count > 0 && list[count] == doc) {
+                    continue;
+                }
+                if (count + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    building.put(key, list);
+                }
+                list[count + 1] = doc;
+                list[0] = count + 1;
+            }
+        }
+
+        postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((key, list) -> postings.put(key, Arrays.copyOfRange(list, 1, list[0] + 1)));
+    }
+
+    /**
+     * @return number of indexed texts
+     */
+    public int size() {
+        return lowered.length;
+    }
+
+    /**
+     * Returns the positions of all texts containing {@code query}
+     * (ignoring case), in ascending order. An empty query matches everything.
+     */
+    public int[] search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        int[] candidates = null;
+
+        // Narrow the previous result when the new query contains the old one
+        if (lastQuery != null && !lastQuery.isEmpty() && q.contains(lastQuery)) {
+            candidates = lastMatches;
+        }
+        if (q.length() >= 3) {
+            int[] rarest = rarestPosting(q);
+            if (candidates == null || rarest.length < candidates.length) {
+                candidates = rarest;
+            }
+        }
+
+        int[] matches;
+        if (q.isEmpty()) {
+            matches = new int[lowered.length];
+            Arrays.setAll(matches, i -> i);
+        } else if (candidates == null) {
+            matches = scan(q);
+        } else {
+            matches = verify(q, candidates);
+        }
+
+        lastQuery = q;
+        lastMatches = matches;
+        return matches;
+    }
+
+    private int[] rarestPosting(String q) {
+        int[] rarest = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            int[] list = postings.get(trigram(q, i));
+            if (list == null) {
+                return NONE; // some trigram occurs nowhere, so nothing can match
+            }
+            if (rarest == null || list.length < rarest.length) {
+                rarest = list;
+            }
+        }
+        return rarest;
+    }
+
+    private int[] scan(String q) {
+        long required = signature(q);
+        // A single letter or digit owns its bit, so the signature alone decides
+        boolean exact = q.length() == 1 && Long.bitCount(required) == 1 && isAlphanumeric(q.charAt(0));
+        int[] result = new int[16];
+        int n = 0;
+        for (int doc = 0; doc < lowered.length; doc++) {
+            if ((signatures[doc] & required) == required && (exact || lowered[doc].contains(q))) {
+                if (n == result.length) {
+                    result = Arrays.copyOf(result, n * 2);
+                }
+                result[n++] = doc;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private int[] verify(String q, int[] candidates) {
+        int[] result = new int[candidates.length];
+        int n = 0;
+        for (int doc : candidates) {
+            if (lowered[doc].contains(q)) {
+                result[n++] = doc;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static long signature(String s) {
+        long bits = 0;
+        for (int i = 0; i < s.length(); i++) {
+            bits |= 1L << charClass(s.charAt(i));
+        }
+        return bits;
+    }
+
+    // a-z -> 0..25, 0-9 -> 26..35, anything else hashed into 36..63
+    private static int charClass(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        }
+        return 36 + c % 28;
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
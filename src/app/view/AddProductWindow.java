@@ -5,6 +5,7 @@ import java.awt.*;
 import java.util.Objects;
 
 import app.controller.ProductController;
+import app.dao.SchemaMigrator;
 import app.model.Product;
 
 public class AddProductWindow extends JFrame {
@@ -13,11 +14,12 @@ public class AddProductWindow extends JFrame {
     private final JTextField quantityField;
     private final JTextField priceField;
     private final JComboBox<String> categoryDropdown;  // ✅ Category dropdown
+    private final JTextField barcodeField;              // Optional barcode / SKU
 
     public AddProductWindow() {
         // Frame setup
         setTitle("Add Product");
-        setSize(400, 300);
+        setSize(400, 340);
         setLocationRelativeTo(null); // Center window
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Close only the form
         setResizable(false);
@@ -26,7 +28,7 @@ public class AddProductWindow extends JFrame {
 
         // Create panel and layout
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(6, 2));
+        panel.setLayout(new GridLayout(7, 2));
         panel.setBackground(new Color(84,84,84));
 
 
@@ -53,6 +55,10 @@ public class AddProductWindow extends JFrame {
         categoryDropdown = new JComboBox<>(categories);
         panel.add(categoryDropdown);
 
+        panel.add(new JLabel("Barcode / SKU (optional):"));
+        barcodeField = new JTextField();
+        panel.add(barcodeField);
+
 
         // Add button
         JButton addButton = new JButton("Add Product");
@@ -62,7 +68,7 @@ public class AddProductWindow extends JFrame {
         add(panel);
 
         // Button listener to add product
-        addButton.addActionListener(_ -> addProduct());
+        addButton.addActionListener(e -> addProduct());
     }
 
     private void addProduct() {
@@ -75,7 +81,7 @@ public class AddProductWindow extends JFrame {
 
             // Create a new product object
             String category = Objects.requireNonNull(categoryDropdown.getSelectedItem()).toString(); // ✅ Get selected value
-            Product product = new Product(id, name, quantity, price, category); // ✅ Pass to constructor
+            Product product = new Product(id, name, quantity, price, category, barcodeField.getText()); // ✅ Pass to constructor
 
             // Call the controller to add the product
             ProductController productController = new ProductController();
@@ -96,9 +102,11 @@ public class AddProductWindow extends JFrame {
         quantityField.setText("");
         priceField.setText("");
         categoryDropdown.setSelectedIndex(0); // ✅ Reset dropdown
+        barcodeField.setText("");
     }
 
     public static void main(String[] args) {
+        SchemaMigrator.migrate();
         // Show the Add Product window
         SwingUtilities.invokeLater(() -> new AddProductWindow().setVisible(true));
     }
@@ -47,13 +47,13 @@ public class AddUserDialog extends JDialog {
         // Buttons panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton addButton = new JButton("Add User");
-        addButton.addActionListener(_ -> {
+        addButton.addActionListener(e -> {
             addUser();
             parent.refreshUsers();  // refresh table in ManageUsersWindow
         });
 
         JButton cancelButton = new JButton("Cancel");
-        cancelButton.addActionListener(_ -> dispose());
+        cancelButton.addActionListener(e -> dispose());
 
         buttonPanel.add(addButton);
         buttonPanel.add(cancelButton);
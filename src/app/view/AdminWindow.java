@@ -1,7 +1,15 @@
 package app.view;
 
+import app.dao.ProductDAO;
+import app.dao.SalesDAO;
+import app.util.AnalyticsSnapshot;
+import app.util.QueryMetrics;
+
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * AdminWindow.java
@@ -11,6 +19,8 @@ import java.awt.*;
  */
 public class AdminWindow extends JFrame {
 
+    private static final String QUERY_METRICS_FILE = "query-metrics.txt";
+
     public AdminWindow() {
         setTitle("Admin - Inventory System");
         setSize(600, 400);
@@ -43,7 +53,7 @@ public class AdminWindow extends JFrame {
         // === MANAGE USERS BUTTON ===
         String MANAGE_USERS_ICON = "resources/icons/manage-users.png";
         JButton manageUsersBtn = createIconButton(MANAGE_USERS_ICON, "Manage Users");
-        manageUsersBtn.addActionListener(_ -> manageUsers());
+        manageUsersBtn.addActionListener(e -> manageUsers());
         manageUsersBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
         mainPanel.add(manageUsersBtn);
 
@@ -74,9 +84,29 @@ public class AdminWindow extends JFrame {
             SwingUtilities.invokeLater(LoginWindow::new); // Back to log in
         });
 
+        // === QUERY STATS BUTTON ===
+        JButton queryStatsBtn = new JButton("Query Stats");
+        queryStatsBtn.setForeground(Color.WHITE);
+        queryStatsBtn.setBackground(new Color(70, 70, 70));
+        queryStatsBtn.setFocusPainted(false);
+        queryStatsBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        queryStatsBtn.setToolTipText("Show and save SQL timing statistics");
+        queryStatsBtn.addActionListener(e -> showQueryStats());
+
+        // === REBUILD SALES TOTALS BUTTON ===
+        JButton rebuildTotalsBtn = new JButton("Rebuild Sales Totals");
+        rebuildTotalsBtn.setForeground(Color.WHITE);
+        rebuildTotalsBtn.setBackground(new Color(70, 70, 70));
+        rebuildTotalsBtn.setFocusPainted(false);
+        rebuildTotalsBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        rebuildTotalsBtn.setToolTipText("Recompute the dashboard totals from the sales ledger");
+        rebuildTotalsBtn.addActionListener(e -> rebuildSalesTotals(rebuildTotalsBtn));
+
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         bottomPanel.setBackground(new Color(34, 40, 49));
         bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 10));
+        bottomPanel.add(rebuildTotalsBtn);
+        bottomPanel.add(queryStatsBtn);
         bottomPanel.add(logoutBtn);
 
         wrapper.add(bottomPanel, BorderLayout.SOUTH);
@@ -119,6 +149,65 @@ public class AdminWindow extends JFrame {
         }
     }
 
+    /**
+     * Shows the per-query timing snapshot and the product catalog cache
+     * counters, and saves them to query-metrics.txt.
+     */
+    private void showQueryStats() {
+        String report = QueryMetrics.report() + ProductDAO.getCatalogStats() + System.lineSeparator();
+        String saved;
+        try {
+            Files.writeString(Path.of(QUERY_METRICS_FILE), report);
+            saved = "Saved to " + QUERY_METRICS_FILE;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            saved = "Could not save " + QUERY_METRICS_FILE;
+        }
+
+        JTextArea text = new JTextArea(report, 20, 100);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        text.setEditable(false);
+        JOptionPane.showMessageDialog(this, new Object[]{new JScrollPane(text), saved},
+                "Query Stats", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Recomputes the per-product, per-category and daily totals from the
+     * ledger, e.g. after restoring a backup or editing sales by hand.
+     */
+    private void rebuildSalesTotals(JButton button) {
+        int choice = JOptionPane.showConfirmDialog(this,
+                "Recompute all sales totals from the ledger?\nCheckouts wait until the rebuild finishes.",
+                "Rebuild Sales Totals", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        button.setEnabled(false);
+        new UiTask<Boolean>() {
+            @Override
+            protected Boolean doInBackground() {
+                return new SalesDAO().rebuildAggregates();
+            }
+
+            @Override
+            protected void succeeded(Boolean rebuilt) {
+                if (rebuilt) {
+                    AnalyticsSnapshot.requestRefresh(); // reports pick up the new totals with the next copy
+                    JOptionPane.showMessageDialog(AdminWindow.this, "✅ Sales totals rebuilt from the ledger.");
+                } else {
+                    JOptionPane.showMessageDialog(AdminWindow.this, "❌ Failed to rebuild sales totals.",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+
+            @Override
+            protected void finished() {
+                button.setEnabled(true);
+            }
+        }.execute();
+    }
+
     /**
      * Opens Manage Users window.
      */
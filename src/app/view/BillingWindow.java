@@ -1,18 +1,21 @@
 package app.view;
 
 import app.dao.ProductDAO;
-import app.dao.SalesDAO;
 import app.model.BillItem;
 import app.model.Product;
-import app.model.Sale;
+import app.service.CheckoutService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 import com.itextpdf.text.*;
@@ -28,19 +31,31 @@ import java.text.MessageFormat;
  * Allows users to select products, input quantities, generate a bill,
  * and record the sale in the database with a POS-style experience.
  * <p>
+ * Barcode scanners type the code followed by Enter into the scan field. Each
+ * code is resolved from the in-memory catalog on the EDT, in arrival order,
+ * and appended to the bill without a database round trip or a blocking dialog,
+ * so fast bursts of scans are neither dropped nor reordered. Codes scanned
+ * while the catalog is still loading (or reloading) are queued in order and
+ * added once it is in memory; the EDT never waits for the database.
+ * <p>
  * Author: Saurabh Pandey
  * Date: 06 May 2025
  */
 public class BillingWindow extends JFrame {
 
-    private JComboBox<String> productDropdown;
+    private ProductPicker productPicker;
     private JTextField quantityField;
     private DefaultTableModel tableModel;
     private JLabel totalLabel;
+    private JTextField scanField;
+    private JLabel scanStatus;
 
     private final List<BillItem> billItems = new ArrayList<>();
+    private final CheckoutService checkoutService = new CheckoutService();
     private final ProductDAO productDAO = new ProductDAO();
-    private final SalesDAO salesDAO = new SalesDAO();
+    private boolean checkingOut; // the bill is frozen while a checkout runs
+    private final Deque<String> queuedScans = new ArrayDeque<>(); // scanned before the catalog was loaded
+    private UiTask<Boolean> catalogLoad; // non-null while the catalog loads
 
     public BillingWindow() {
         setTitle("POS - Billing System");
@@ -50,25 +65,47 @@ public class BillingWindow extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         initUI();
+        // Warm the barcode index off the EDT so the first scan is instant
+        loadCatalog();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                productPicker.close();
+            }
+        });
         setVisible(true);
+        scanField.requestFocusInWindow();
     }
 
     private void initUI() {
+        // Scan panel: barcode scanners send the code and Enter
+        JPanel scanPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        scanField = new JTextField(18);
+        scanField.addActionListener(e -> {
+            String code = scanField.getText();
+            scanField.setText(""); // ready for the next scan before handling this one
+            handleScan(code);
+        });
+        scanStatus = new JLabel(" ");
+        scanPanel.add(new JLabel("Scan Barcode:"));
+        scanPanel.add(scanField);
+        scanPanel.add(scanStatus);
+
         // Top panel with product dropdown and quantity field
         JPanel topPanel = new JPanel(new FlowLayout());
 
-        productDropdown = new JComboBox<>();
-        for (Product p : ProductDAO.getAllProducts()) {
-            productDropdown.addItem(p.getId() + " - " + p.getName());
-        }
+        // Type-ahead search instead of a dropdown holding the whole catalog
+        productPicker = new ProductPicker();
 
         quantityField = new JTextField(5);
         JButton addButton = new JButton("Add to Bill");
 
         addButton.addActionListener(this::handleAddToBill);
+        quantityField.addActionListener(this::handleAddToBill);
+        productPicker.setOnPick(p -> quantityField.requestFocusInWindow());
 
         topPanel.add(new JLabel("Select Product:"));
-        topPanel.add(productDropdown);
+        topPanel.add(productPicker);
         topPanel.add(new JLabel("Quantity:"));
         topPanel.add(quantityField);
         topPanel.add(addButton);
@@ -104,7 +141,10 @@ public class BillingWindow extends JFrame {
         bottomPanel.add(buttonPanel, BorderLayout.EAST);
 
         // Add panels to frame
-        add(topPanel, BorderLayout.NORTH);
+        JPanel northPanel = new JPanel(new GridLayout(2, 1));
+        northPanel.add(scanPanel);
+        northPanel.add(topPanel);
+        add(northPanel, BorderLayout.NORTH);
         add(tableScroll, BorderLayout.CENTER);
         add(bottomPanel, BorderLayout.SOUTH);
     }
@@ -178,13 +218,18 @@ public class BillingWindow extends JFrame {
     }
 
     private void handleAddToBill(ActionEvent e) {
-        String selected = (String) productDropdown.getSelectedItem();
-        if (selected == null || quantityField.getText().isEmpty()) {
+        if (checkingOut) {
+            JOptionPane.showMessageDialog(this, "Please wait for the current sale to finish.");
+            return;
+        }
+        // The picker already holds the product row, so no second lookup is needed
+        Product product = productPicker.getSelectedProduct();
+        if (product == null || quantityField.getText().isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please select a product and enter quantity.");
             return;
         }
 
-        int productId = Integer.parseInt(selected.split(" - ")[0]);
+        int productId = product.getId();
         int qty;
 
         try {
@@ -195,8 +240,8 @@ public class BillingWindow extends JFrame {
             return;
         }
 
-        Product product = productDAO.getProductById(productId);
-        if (product == null || product.getQuantity() < qty) {
+        // Stock as of the search; checkout re-checks it atomically
+        if (product.getQuantity() < qty) {
             JOptionPane.showMessageDialog(this, "Insufficient stock.");
             return;
         }
@@ -207,6 +252,8 @@ public class BillingWindow extends JFrame {
                 item.setQuantity(item.getQuantity() + qty);
                 refreshTable();
                 updateTotal();
+                productPicker.clear();
+                quantityField.setText("");
                 return;
             }
         }
@@ -216,6 +263,150 @@ public class BillingWindow extends JFrame {
         billItems.add(item);
         refreshTable();
         updateTotal();
+        productPicker.clear();
+        quantityField.setText("");
+    }
+
+    /**
+     * Adds one unit of the scanned product to the bill. Problems are shown in
+     * the status label with a beep rather than a dialog, which would swallow
+     * the keystrokes of the following scans.
+     */
+    private void handleScan(String code) {
+        if (code.isBlank()) {
+            return;
+        }
+        if (checkingOut) {
+            scanProblem("Please wait for the current sale to finish.");
+            return;
+        }
+        // Later scans wait behind queued ones so the bill keeps scan order
+        if (!queuedScans.isEmpty()) {
+            queueScan(code);
+            return;
+        }
+        Product product = productDAO.getLoadedProductByBarcode(code);
+        if (product == null && !ProductDAO.isCatalogLoaded()) {
+            queueScan(code);
+            return;
+        }
+        if (product == null) {
+            scanProblem("Unknown barcode: " + code.trim());
+            return;
+        }
+
+        for (int row = 0; row < billItems.size(); row++) {
+            BillItem item = billItems.get(row);
+            if (item.getProductId() == product.getId()) {
+                if (item.getQuantity() + 1 > product.getQuantity()) {
+                    scanProblem("Insufficient stock: " + product.getName());
+                    return;
+                }
+                item.setQuantity(item.getQuantity() + 1);
+                // Update just this row instead of rebuilding the table
+                tableModel.setValueAt(item.getQuantity(), row, 3);
+                tableModel.setValueAt(String.format("₹%.2f", item.getTotalPrice()), row, 5);
+                scanned(product);
+                return;
+            }
+        }
+
+        if (product.getQuantity() < 1) {
+            scanProblem("Out of stock: " + product.getName());
+            return;
+        }
+        BillItem item = new BillItem(product.getId(), product.getName(), 1, product.getPrice(), product.getCategory());
+        billItems.add(item);
+        tableModel.addRow(new Object[]{
+                item.getProductId(),
+                item.getProductName(),
+                item.getCategory(),
+                item.getQuantity(),
+                String.format("₹%.2f", item.getPricePerUnit()),
+                String.format("₹%.2f", item.getTotalPrice())
+        });
+        scanned(product);
+    }
+
+    private void queueScan(String code) {
+        queuedScans.addLast(code);
+        loadCatalog();
+    }
+
+    /**
+     * Loads the catalog in the background unless a load is already running,
+     * then adds the queued scans.
+     */
+    private void loadCatalog() {
+        scanStatus.setForeground(Color.GRAY);
+        scanStatus.setText(queuedScans.isEmpty()
+                ? "⏳ Loading catalog…"
+                : "⏳ Loading catalog… " + queuedScans.size() + " scan(s) waiting");
+        if (catalogLoad != null) {
+            return;
+        }
+        catalogLoad = new UiTask<Boolean>() {
+            @Override
+            protected Boolean doInBackground() {
+                return ProductDAO.preloadCatalog();
+            }
+
+            @Override
+            protected void succeeded(Boolean loaded) {
+                catalogLoad = null;
+                if (!loaded) {
+                    catalogFailed();
+                } else if (queuedScans.isEmpty()) {
+                    scanStatus.setText(" ");
+                } else {
+                    addQueuedScans();
+                }
+            }
+
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                catalogLoad = null;
+                catalogFailed();
+            }
+
+            @Override
+            protected void cancelled() {
+                catalogLoad = null;
+            }
+        }.cancelWhenClosed(this).executeInteractive();
+    }
+
+    private void catalogFailed() {
+        scanProblem(queuedScans.isEmpty()
+                ? "Catalog failed to load; scan to retry."
+                : "Catalog failed to load; " + queuedScans.size() + " scan(s) waiting, scan again to retry.");
+    }
+
+    /**
+     * Adds the scans queued while the catalog loaded, in scan order.
+     */
+    private void addQueuedScans() {
+        if (checkingOut) {
+            return; // added once the checkout finishes
+        }
+        List<String> codes = new ArrayList<>(queuedScans);
+        queuedScans.clear();
+        for (String code : codes) {
+            handleScan(code); // re-queues the rest if the catalog was dropped meanwhile
+        }
+    }
+
+    private void scanned(Product product) {
+        scanStatus.setForeground(new Color(0, 128, 0));
+        scanStatus.setText("✔ " + product.getName());
+        updateTotal();
+    }
+
+    private void scanProblem(String message) {
+        Toolkit.getDefaultToolkit().beep();
+        scanStatus.setForeground(Color.RED);
+        scanStatus.setText("✖ " + message);
     }
 
     private void refreshTable() {
@@ -246,29 +437,39 @@ public class BillingWindow extends JFrame {
             return;
         }
 
-        for (BillItem item : billItems) {
-            // Reduce stock
-            boolean reduced = productDAO.reduceStock(item.getProductId(), item.getQuantity());
-            if (!reduced) {
-                JOptionPane.showMessageDialog(this, "Failed to update stock for: " + item.getProductName());
-                return;
+        // Stock and sales for the whole bill commit together or not at all;
+        // the checkout runs in the background and the bill is frozen meanwhile
+        JButton confirmButton = (JButton) e.getSource();
+        confirmButton.setEnabled(false);
+        checkingOut = true;
+
+        new UiTask<CheckoutService.Result>() {
+            @Override
+            protected CheckoutService.Result doInBackground() {
+                return checkoutService.checkout(billItems);
             }
 
-            // Record sale
-            Sale sale = new Sale(
-                    item.getProductId(),
-                    item.getProductName(),
-                    item.getQuantity(),
-                    item.getTotalPrice(),
-                    LocalDateTime.now(),
-                    item.getCategory()
-            );
-            salesDAO.recordSale(sale);
-        }
+            @Override
+            protected void succeeded(CheckoutService.Result result) {
+                if (!result.committed()) {
+                    JOptionPane.showMessageDialog(BillingWindow.this, "Failed to record sale. " + result.message());
+                    return;
+                }
 
-        JOptionPane.showMessageDialog(this, "✅ Sale recorded and bill generated!");
-        billItems.clear();
-        refreshTable();
-        updateTotal();
+                JOptionPane.showMessageDialog(BillingWindow.this, "✅ " + result.message());
+                billItems.clear();
+                refreshTable();
+                updateTotal();
+            }
+
+            @Override
+            protected void finished() {
+                checkingOut = false;
+                confirmButton.setEnabled(true);
+                if (!queuedScans.isEmpty() && catalogLoad == null) {
+                    addQueuedScans();
+                }
+            }
+        }.executeInteractive();
     }
-}
\ No newline at end of file
+}
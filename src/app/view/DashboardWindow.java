@@ -8,9 +8,15 @@ import java.awt.*;
 
 /**
  * Dashboard Window to show inventory statistics.
+ * The window opens with placeholder values; the statistics are computed in
+ * the background and filled in when ready.
  */
 public class DashboardWindow extends JFrame {
 
+    private static final String PLACEHOLDER = "…";
+
+    private JLabel totalValue, lowStockValue, outOfStockValue, mostStockedValue;
+
     public DashboardWindow() {
         setTitle("Inventory Dashboard");
         setSize(600, 400);
@@ -20,29 +26,57 @@ public class DashboardWindow extends JFrame {
 
         initUI();
         setVisible(true);
+        loadStats();
     }
 
     private void initUI() {
-        InventoryStats stats = ProductController.getInventoryStats();
-
         JPanel panel = new JPanel(new GridLayout(2, 2, 20, 20));
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(new Color(245, 250, 255));
 
         // Cards
-        panel.add(createCard("Total Products", String.valueOf(stats.getTotalProducts()), new Color(70, 130, 180)));
-        panel.add(createCard("Low Stock", String.valueOf(stats.getLowStockCount()), new Color(255, 165, 0)));
-        panel.add(createCard("Out of Stock", String.valueOf(stats.getOutOfStockCount()), new Color(220, 20, 60)));
-
-        String mostStocked = stats.getMostStockedProduct() != null
-                ? stats.getMostStockedProduct().getName() + " (" + stats.getMostStockedProduct().getQuantity() + ")"
-                : "N/A";
-        panel.add(createCard("Most Stocked Product", mostStocked, new Color(60, 179, 113)));
+        totalValue = addCard(panel, "Total Products", new Color(70, 130, 180));
+        lowStockValue = addCard(panel, "Low Stock", new Color(255, 165, 0));
+        outOfStockValue = addCard(panel, "Out of Stock", new Color(220, 20, 60));
+        mostStockedValue = addCard(panel, "Most Stocked Product", new Color(60, 179, 113));
 
         add(panel);
     }
 
-    private JPanel createCard(String title, String value, Color color) {
+    /**
+     * Computes the statistics off the EDT and fills in the cards.
+     */
+    private void loadStats() {
+        new UiTask<InventoryStats>() {
+            @Override
+            protected InventoryStats doInBackground() {
+                return ProductController.getInventoryStats();
+            }
+
+            @Override
+            protected void succeeded(InventoryStats stats) {
+                totalValue.setText(String.valueOf(stats.getTotalProducts()));
+                lowStockValue.setText(String.valueOf(stats.getLowStockCount()));
+                outOfStockValue.setText(String.valueOf(stats.getOutOfStockCount()));
+                mostStockedValue.setText(stats.getMostStockedProduct() != null
+                        ? stats.getMostStockedProduct().getName() + " (" + stats.getMostStockedProduct().getQuantity() + ")"
+                        : "N/A");
+            }
+
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                for (JLabel label : new JLabel[]{totalValue, lowStockValue, outOfStockValue, mostStockedValue}) {
+                    label.setText("N/A");
+                }
+            }
+        }.cancelWhenClosed(this).execute();
+    }
+
+    /**
+     * Adds a card showing a placeholder value and returns its value label.
+     */
+    private JLabel addCard(JPanel panel, String title, Color color) {
         JPanel card = new JPanel();
         card.setBackground(color);
         card.setLayout(new BorderLayout());
@@ -53,13 +87,14 @@ public class DashboardWindow extends JFrame {
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         titleLabel.setForeground(Color.WHITE);
 
-        JLabel valueLabel = new JLabel(value, SwingConstants.CENTER);
+        JLabel valueLabel = new JLabel(PLACEHOLDER, SwingConstants.CENTER);
         valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
         valueLabel.setForeground(Color.WHITE);
 
         card.add(titleLabel, BorderLayout.NORTH);
         card.add(valueLabel, BorderLayout.CENTER);
 
-        return card;
+        panel.add(card);
+        return valueLabel;
     }
 }
\ No newline at end of file
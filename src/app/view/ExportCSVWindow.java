@@ -4,15 +4,16 @@ import app.controller.ProductController;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 
 /**
  * ExportCSVWindow.java
  * This class represents the UI for exporting all products to a CSV file.
+ * The export runs in the background with a live row count and can be cancelled.
  */
 public class ExportCSVWindow {
 
+    private UiTask<Boolean> exportTask;
+
     public void createAndShowGUI() {
         JFrame frame = new JFrame("Export Products to CSV");
         frame.setSize(400, 200);
@@ -23,26 +24,78 @@ public class ExportCSVWindow {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
         JButton exportButton = new JButton("Export to CSV");
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
         JLabel messageLabel = new JLabel("Click the button to export products.csv", SwingConstants.CENTER);
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setVisible(false);
+
+        JPanel buttons = new JPanel(new GridLayout(1, 2, 10, 0));
+        buttons.add(exportButton);
+        buttons.add(cancelButton);
 
-        panel.add(exportButton, BorderLayout.CENTER);
+        panel.add(progressBar, BorderLayout.NORTH);
+        panel.add(buttons, BorderLayout.CENTER);
         panel.add(messageLabel, BorderLayout.SOUTH);
 
-        exportButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                ProductController controller = new ProductController();
-                boolean success = controller.exportProductsToCSV("products.csv");
+        exportButton.addActionListener(e -> {
+            exportButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+            progressBar.setIndeterminate(true);
+            progressBar.setVisible(true);
+            messageLabel.setText("Exporting...");
+
+            exportTask = new UiTask<Boolean>() {
+                @Override
+                protected Boolean doInBackground() {
+                    ProductController controller = new ProductController();
+                    return controller.exportProductsToCSV("products.csv", rows -> {
+                        checkCancelled();
+                        publish(String.format("Exporting... %,d rows written", rows), -1);
+                    });
+                }
+
+                @Override
+                protected void progress(String message, int percent) {
+                    messageLabel.setText(message);
+                }
+
+                @Override
+                protected void succeeded(Boolean success) {
+                    if (success) {
+                        messageLabel.setText("✅ Exported successfully to products.csv");
+                    } else {
+                        messageLabel.setText("❌ Failed to export. Check console.");
+                    }
+                }
 
-                if (success) {
-                    messageLabel.setText("✅ Exported successfully to products.csv");
-                } else {
+                @Override
+                protected void failed(Exception ex) {
+                    super.failed(ex);
                     messageLabel.setText("❌ Failed to export. Check console.");
                 }
+
+                @Override
+                protected void cancelled() {
+                    messageLabel.setText("Export cancelled.");
+                }
+
+                @Override
+                protected void finished() {
+                    progressBar.setVisible(false);
+                    exportButton.setEnabled(true);
+                    cancelButton.setEnabled(false);
+                }
+            }.cancelWhenClosed(frame).execute();
+        });
+
+        cancelButton.addActionListener(e -> {
+            if (exportTask != null) {
+                exportTask.cancel();
             }
         });
 
         frame.add(panel);
         frame.setVisible(true);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package app.view;
 
 import app.controller.ProductController;
+import app.dao.ProductDAO;
 
 import javax.swing.*;
 import java.awt.*;
@@ -8,9 +9,18 @@ import java.io.File;
 
 /**
  * A simple window to allow users to choose a CSV file to import products.
+ * The import runs in the background and reports rows imported and throughput
+ * after every committed chunk. Cancelling (or closing the window) stops after
+ * the current chunk; chunks already committed stay imported.
  */
 public class ImportCSVWindow extends JFrame {
 
+    private final JLabel label;
+    private final JProgressBar progressBar;
+    private final JButton cancelBtn;
+    private UiTask<Integer> importTask;
+    private volatile int importedSoFar; // rows committed, for the cancel/failure message
+
     public ImportCSVWindow() {
         setTitle("Import Products from CSV");
         setSize(400, 200);
@@ -21,10 +31,16 @@ public class ImportCSVWindow extends JFrame {
         setUndecorated(false);
         getRootPane().setWindowDecorationStyle(JRootPane.PLAIN_DIALOG);
 
-        JLabel label = new JLabel("Click below to select a CSV file to import products:", SwingConstants.CENTER);
+        label = new JLabel("Click below to select a CSV file to import products:", SwingConstants.CENTER);
         label.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         add(label, BorderLayout.CENTER);
 
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        progressBar.setVisible(false);
+        add(progressBar, BorderLayout.NORTH);
+
         JButton importBtn = new JButton("📂 Select CSV File");
         importBtn.setFont(new Font("Segoe UI", Font.BOLD, 16));
         importBtn.setBackground(new Color(52, 152, 219));
@@ -38,22 +54,92 @@ public class ImportCSVWindow extends JFrame {
 
             if (result == JFileChooser.APPROVE_OPTION) {
                 File file = chooser.getSelectedFile();
-                String path = file.getAbsolutePath();
+                importBtn.setEnabled(false);
+                startImport(file.getAbsolutePath());
+            }
+        });
+
+        cancelBtn = new JButton("Cancel Import");
+        cancelBtn.setVisible(false);
+        cancelBtn.addActionListener(e -> {
+            if (importTask != null) {
+                cancelBtn.setEnabled(false);
+                label.setText("Cancelling...");
+                importTask.cancel();
+            }
+        });
 
+        JPanel buttons = new JPanel(new GridLayout(1, 0, 5, 0));
+        buttons.add(importBtn);
+        buttons.add(cancelBtn);
+        add(buttons, BorderLayout.SOUTH);
+        setVisible(true);
+    }
+
+    /**
+     * Runs the import off the EDT and shows per-chunk progress.
+     */
+    private void startImport(String path) {
+        label.setText("Importing...");
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+
+        cancelBtn.setVisible(true);
+
+        importTask = new UiTask<Integer>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
                 ProductController controller = new ProductController();
-                int count = controller.importProductsFromCSV(path);
+                return controller.importProductsFromCSV(path, (rows, rejected, rowsPerSecond) -> {
+                    importedSoFar = rows;
+                    checkCancelled(); // stops after this chunk
+                    publish(String.format("%,d rows  •  %,d rejected  •  %,.0f rows/sec",
+                            rows, rejected, rowsPerSecond), -1);
+                });
+            }
+
+            @Override
+            protected void progress(String message, int percent) {
+                progressBar.setString(message);
+            }
+
+            @Override
+            protected void succeeded(Integer count) {
+                String report = ProductDAO.getErrorReportPath(path);
+                String rejectedNote = new File(report).exists()
+                        ? "\nRejected rows were written to:\n" + report
+                        : "";
 
                 if (count > 0) {
-                    JOptionPane.showMessageDialog(this, "✅ Imported " + count + " products.");
+                    JOptionPane.showMessageDialog(ImportCSVWindow.this,
+                            "✅ Imported " + count + " products.\n" + progressBar.getString() + rejectedNote);
                 } else {
-                    JOptionPane.showMessageDialog(this, "❌ No products imported.");
+                    JOptionPane.showMessageDialog(ImportCSVWindow.this, "❌ No products imported." + rejectedNote);
                 }
+            }
 
-                dispose(); // Close window after import
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                JOptionPane.showMessageDialog(ImportCSVWindow.this, importedSoFar == 0
+                        ? "❌ No products imported."
+                        : "❌ Import failed after " + importedSoFar + " products; those were kept.\n"
+                        + "Importing the file again is safe: existing IDs are overwritten.");
             }
-        });
 
-        add(importBtn, BorderLayout.SOUTH);
-        setVisible(true);
+            @Override
+            protected void cancelled() {
+                if (isDisplayable()) {
+                    JOptionPane.showMessageDialog(ImportCSVWindow.this, importedSoFar == 0
+                            ? "Import cancelled."
+                            : "Import cancelled; " + importedSoFar + " products imported before it were kept.");
+                }
+            }
+
+            @Override
+            protected void finished() {
+                dispose(); // Close window after import
+            }
+        }.cancelWhenClosed(this).execute();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package app.view;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * LoadingPanel.java
+ * ---------------------
+ * Shows a "Loading..." placeholder in place of a component until its data
+ * arrives from a {@link UiTask}.
+ * <p>
+ * The window can be laid out and shown immediately; the task calls
+ * {@link #showContent()} when it succeeds or {@link #showMessage(String)}
+ * when there is nothing to show. Touch only on the EDT.
+ */
+public class LoadingPanel extends JPanel {
+
+    private static final String LOADING = "loading";
+    private static final String CONTENT = "content";
+
+    private final CardLayout cards = new CardLayout();
+    private final JLabel messageLabel = new JLabel("", SwingConstants.CENTER);
+    private final JProgressBar progressBar = new JProgressBar();
+
+    /**
+     * @param content component shown once loading is done
+     * @param message placeholder text, e.g. "Loading products..."
+     */
+    public LoadingPanel(Component content, String message) {
+        setLayout(cards);
+        setOpaque(false);
+
+        JPanel placeholder = new JPanel(new GridBagLayout());
+        placeholder.setOpaque(false);
+        Box box = Box.createVerticalBox();
+        messageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        progressBar.setAlignmentX(Component.CENTER_ALIGNMENT);
+        progressBar.setMaximumSize(new Dimension(240, 18));
+        box.add(messageLabel);
+        box.add(Box.createVerticalStrut(8));
+        box.add(progressBar);
+        placeholder.add(box);
+
+        add(placeholder, LOADING);
+        add(content, CONTENT);
+        showLoading(message);
+    }
+
+    /**
+     * Shows the placeholder with an indeterminate progress bar.
+     */
+    public void showLoading(String message) {
+        messageLabel.setText(message);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        cards.show(this, LOADING);
+    }
+
+    /**
+     * Updates the placeholder while loading.
+     *
+     * @param percent 0-100, or -1 if the total is unknown
+     */
+    public void setProgress(String message, int percent) {
+        messageLabel.setText(message);
+        progressBar.setIndeterminate(percent < 0);
+        if (percent >= 0) {
+            progressBar.setValue(percent);
+        }
+    }
+
+    /**
+     * Replaces the placeholder with the content.
+     */
+    public void showContent() {
+        cards.show(this, CONTENT);
+    }
+
+    /**
+     * Shows {@code message} instead of the content (empty result, error).
+     */
+    public void showMessage(String message) {
+        messageLabel.setText(message);
+        progressBar.setVisible(false);
+        cards.show(this, LOADING);
+    }
+}
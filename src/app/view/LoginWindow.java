@@ -1,5 +1,6 @@
 package app.view;
 
+import app.dao.SchemaMigrator;
 import app.dao.UserDAO;
 import app.model.User;
 
@@ -210,6 +211,7 @@ public class LoginWindow extends JFrame {
      * Entry point for the login window.
      */
     public static void main(String[] args) {
+        SchemaMigrator.migrate();
         SwingUtilities.invokeLater(LoginWindow::new);
     }
 }
\ No newline at end of file
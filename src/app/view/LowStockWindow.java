@@ -6,13 +6,13 @@ import app.model.Product;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 /**
  * LowStockWindow.java
  * --------------------------------------
  * Displays a table of products that are low in stock (<= 5 units).
  * Helps vendors quickly identify which products need restocking.
+ * The list is loaded in the background behind a placeholder.
  * <p>
  * Author: Saurabh Pandey
  * Date: 04 May 2025
@@ -35,26 +35,27 @@ public class LowStockWindow extends JFrame {
         // Table
         JTable table = new JTable();
         JScrollPane scrollPane = new JScrollPane(table);
-        add(scrollPane, BorderLayout.CENTER);
-
-        // Fetch low stock products and populate table
-        ProductController controller = new ProductController();
-        List<Product> lowStockList = controller.getLowStockProducts();
-        DefaultTableModel model = new DefaultTableModel(new String[]{"ID", "Name", "Quantity", "Price"}, 0);
-
-        for (Product p : lowStockList) {
-            model.addRow(new Object[]{p.getId(), p.getName(), p.getQuantity(), p.getPrice()});
-        }
-
-        table.setModel(model);
+        LoadingPanel tableArea = new LoadingPanel(scrollPane, "Loading low stock products…");
+        add(tableArea, BorderLayout.CENTER);
         table.setFont(new Font("SansSerif", Font.PLAIN, 14));
         table.setRowHeight(24);
 
-        // Message if no low stock items
-        if (lowStockList.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "All products are sufficiently stocked!", "No Low Stock", JOptionPane.INFORMATION_MESSAGE);
-            dispose();
-        }
+        // Fetch low stock products and populate table
+        UiTask.run(() -> new ProductController().getLowStockProducts(), lowStockList -> {
+            // Message if no low stock items
+            if (lowStockList.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "All products are sufficiently stocked!", "No Low Stock", JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+                return;
+            }
+
+            DefaultTableModel model = new DefaultTableModel(new String[]{"ID", "Name", "Quantity", "Price"}, 0);
+            for (Product p : lowStockList) {
+                model.addRow(new Object[]{p.getId(), p.getName(), p.getQuantity(), p.getPrice()});
+            }
+            table.setModel(model);
+            tableArea.showContent();
+        }).cancelWhenClosed(this);
 
         setVisible(true);
     }
@@ -46,7 +46,7 @@ public class MainWindow {
         addMenuButton(buttonPanel, "Dashboard", "resources/icons/dashboard.png", e -> new DashboardWindow());
         addMenuButton(buttonPanel, "Add Product", "resources/icons/add-product.png", e -> ProductController.showAddProductWindow());
         addMenuButton(buttonPanel, "View All Products", "resources/icons/view-all-product.png", e -> ProductController.showViewAllProducts());
-        addMenuButton(buttonPanel, "Search Product by ID", "resources/icons/search-product.png", e -> ProductController.showSearchProductWindow());
+        addMenuButton(buttonPanel, "Search Product", "resources/icons/search-product.png", e -> ProductController.showSearchProductWindow());
         addMenuButton(buttonPanel, "Update Product", "resources/icons/update-product.png", e -> ProductController.showUpdateProductWindow());
         addMenuButton(buttonPanel, "Delete Product", "resources/icons/delete-product.png", e -> ProductController.showDeleteProductWindow());
         addMenuButton(buttonPanel, "Delete All Products", "resources/icons/delete-all-product.png", e -> new app.view.DeleteAllConfirmationWindow());
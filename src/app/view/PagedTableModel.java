@@ -0,0 +1,254 @@
+package app.view;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PagedTableModel.java
+ * ---------------------
+ * Virtual table model that keeps only a few pages of rows in memory.
+ * <p>
+ * Why we need this:
+ * - DefaultTableModel copies every row into a Vector and fires one event per
+ *   addRow, so large tables take seconds to open and hold each row twice
+ * <p>
+ * The row count comes from {@link PageSource#count()}; pages are loaded on a
+ * background thread the first time the table asks for one of their cells, and
+ * the neighbouring pages are prefetched. Loaded pages live in a small LRU.
+ * Until a page arrives its cells read as null (blank). Sources that are
+ * already in memory ({@link #listSource(List)}) skip the loader: the count
+ * and pages are read directly on the EDT, so swapping in a filtered list
+ * never blanks the table. All state except the loader thread is touched only
+ * on the Event Dispatch Thread.
+ *
+ * @param <T> row type
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Supplies rows by position. Called on the loader thread only.
+     */
+    public interface PageSource<T> {
+        int count();
+
+        /**
+         * @return rows {@code offset .. offset+limit-1} (fewer at the end)
+         */
+        List<T> load(int offset, int limit);
+
+        /**
+         * @return true if count and load only read memory; the model then calls
+         *         them on the EDT instead of the loader thread
+         */
+        default boolean inMemory() {
+            return false;
+        }
+    }
+
+    /**
+     * Source over rows that are already in memory (e.g. the product catalog).
+     */
+    public static <T> PageSource<T> listSource(List<T> rows) {
+        return new PageSource<>() {
+            @Override
+            public int count() {
+                return rows.size();
+            }
+
+            @Override
+            public List<T> load(int offset, int limit) {
+                return rows.subList(Math.min(offset, rows.size()), Math.min(offset + limit, rows.size()));
+            }
+
+            @Override
+            public boolean inMemory() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Reads one cell of a row.
+     */
+    public interface CellReader<T> {
+        Object valueAt(T row, int column);
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_PAGES = 8;
+
+    private final String[] columns;
+    private final CellReader<T> cellReader;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> pending = new HashSet<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "table-page-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PageSource<T> source;
+    private int rowCount;
+    private int generation;
+    private volatile int lastRequestedPage;
+    private boolean closed;
+
+    public PagedTableModel(String[] columns, CellReader<T> cellReader) {
+        this(columns, cellReader, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public PagedTableModel(String[] columns, CellReader<T> cellReader, int pageSize, int maxPages) {
+        this.columns = columns.clone();
+        this.cellReader = cellReader;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Replaces the data behind the table (e.g. after a filter change) and
+     * counts its rows in the background. Must be called on the EDT.
+     * Does nothing once the model is closed.
+     */
+    public void setSource(PageSource<T> newSource) {
+        if (closed) {
+            return;
+        }
+        int gen = ++generation;
+        source = newSource;
+        pages.clear();
+        pending.clear();
+        if (newSource.inMemory()) {
+            rowCount = newSource.count();
+            fireTableDataChanged();
+            return;
+        }
+        rowCount = 0;
+        fireTableDataChanged();
+
+        loader.execute(() -> {
+            int count = newSource.count();
+            SwingUtilities.invokeLater(() -> {
+                if (gen == generation) {
+                    rowCount = count;
+                    fireTableDataChanged();
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the row at {@code rowIndex} if its page is loaded, otherwise
+     * schedules the page and returns null.
+     */
+    public T getRow(int rowIndex) {
+        int page = rowIndex / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            rows = pages.get(page); // already there if the source is in memory
+            if (rows == null) {
+                return null;
+            }
+        }
+        // Prefetch ahead and behind so scrolling rarely shows blank rows
+        request(page + 1);
+        if (page > 0) {
+            request(page - 1);
+        }
+        int i = rowIndex - page * pageSize;
+        return i < rows.size() ? rows.get(i) : null;
+    }
+
+    /**
+     * Stops the loader thread. Call when the owning window closes; later
+     * calls to setSource and page requests are ignored.
+     */
+    public void close() {
+        closed = true;
+        generation++; // drop results still on their way to the EDT
+        loader.shutdownNow();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T row = getRow(rowIndex);
+        return row == null ? null : cellReader.valueAt(row, columnIndex);
+    }
+
+    private void request(int page) {
+        if (closed || page * pageSize >= rowCount || pages.containsKey(page)) {
+            return;
+        }
+        if (source.inMemory()) {
+            pages.put(page, source.load(page * pageSize, pageSize));
+            return;
+        }
+        if (!pending.add(page)) {
+            return;
+        }
+        lastRequestedPage = page;
+        int gen = generation;
+        PageSource<T> src = source;
+        int maxDistance = DEFAULT_MAX_PAGES;
+
+        loader.execute(() -> {
+            // Skip pages the user has already scrolled far away from
+            if (Math.abs(page - lastRequestedPage) > maxDistance) {
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation) {
+                        pending.remove(page);
+                        // Repaints the page's rows if they are on screen again, which
+                        // requests the page anew; off-screen rows are not read
+                        firePageUpdated(page);
+                    }
+                });
+                return;
+            }
+            List<T> rows = src.load(page * pageSize, pageSize);
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) {
+                    return;
+                }
+                pending.remove(page);
+                pages.put(page, rows);
+                firePageUpdated(page);
+            });
+        });
+    }
+
+    private void firePageUpdated(int page) {
+        int first = page * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
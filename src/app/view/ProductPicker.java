@@ -0,0 +1,208 @@
+package app.view;
+
+import app.dao.ProductSearchDAO;
+import app.model.Product;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ProductPicker.java
+ * ---------------------
+ * Type-ahead product chooser: a text field whose suggestions pop up below it.
+ * <p>
+ * Why we need this:
+ * - A JComboBox pre-filled with every product freezes the window while it
+ *   loads and is unusable with a large catalog
+ * <p>
+ * Typing (debounced) sends the text to ProductSearchDAO.lookup on a background
+ * thread, so the EDT never waits on SQLite. Only the newest query counts:
+ * queries still waiting to run are dropped, and results of a query that was
+ * overtaken while running are discarded. Up/Down move through suggestions,
+ * Enter or a click picks one, Escape closes the list.
+ */
+public class ProductPicker extends JPanel {
+
+    private static final int DEBOUNCE_MS = 120;
+    private static final int MAX_SUGGESTIONS = 15;
+
+    private final JTextField field = new JTextField(22);
+    private final DefaultListModel<Product> suggestions = new DefaultListModel<>();
+    private final JList<Product> list = new JList<>(suggestions);
+    private final JPopupMenu popup = new JPopupMenu();
+    private final Timer debounce;
+
+    private final ProductSearchDAO searchDAO;
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "product-picker-search");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong latestQuery = new AtomicLong();
+
+    private Product selected;
+    private boolean settingText;
+    private Consumer<Product> onPick = p -> { };
+
+    public ProductPicker() {
+        super(new BorderLayout());
+        searchDAO = new ProductSearchDAO();
+        add(field, BorderLayout.CENTER);
+        field.setToolTipText("Type a product name or ID");
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setVisibleRowCount(8);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                          boolean isSelected, boolean hasFocus) {
+                Product p = (Product) value;
+                String text = p.getId() + " - " + p.getName() + "  (" + p.getQuantity() + " in stock)";
+                return super.getListCellRendererComponent(l, text, index, isSelected, hasFocus);
+            }
+        });
+        popup.setFocusable(false);
+        popup.add(new JScrollPane(list));
+
+        debounce = new Timer(DEBOUNCE_MS, e -> startSearch(field.getText()));
+        debounce.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { textChanged(); }
+            public void removeUpdate(DocumentEvent e) { textChanged(); }
+            public void changedUpdate(DocumentEvent e) { textChanged(); }
+        });
+
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> moveSelection(1);
+                    case KeyEvent.VK_UP -> moveSelection(-1);
+                    case KeyEvent.VK_ENTER -> {
+                        if (popup.isVisible() && !list.isSelectionEmpty()) {
+                            pick(list.getSelectedValue());
+                            e.consume();
+                        }
+                    }
+                    case KeyEvent.VK_ESCAPE -> popup.setVisible(false);
+                }
+            }
+        });
+
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    pick(suggestions.get(index));
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the picked product, or null if the text does not belong to a pick
+     */
+    public Product getSelectedProduct() {
+        return selected;
+    }
+
+    /**
+     * Called on the EDT whenever the user picks a product.
+     */
+    public void setOnPick(Consumer<Product> onPick) {
+        this.onPick = onPick;
+    }
+
+    public void clear() {
+        setFieldText("");
+        selected = null;
+        popup.setVisible(false);
+    }
+
+    /**
+     * Stops the search thread. Call when the owning window closes.
+     */
+    public void close() {
+        debounce.stop();
+        searcher.shutdownNow();
+    }
+
+    private void textChanged() {
+        if (settingText) {
+            return;
+        }
+        selected = null;
+        debounce.restart();
+    }
+
+    private void startSearch(String text) {
+        long queryId = latestQuery.incrementAndGet();
+        if (text.isBlank()) {
+            popup.setVisible(false);
+            return;
+        }
+        searcher.execute(() -> {
+            if (queryId != latestQuery.get()) {
+                return; // a newer query is already queued
+            }
+            List<Product> results = searchDAO.lookup(text, MAX_SUGGESTIONS);
+            SwingUtilities.invokeLater(() -> showResults(queryId, results));
+        });
+    }
+
+    private void showResults(long queryId, List<Product> results) {
+        if (queryId != latestQuery.get() || !field.isShowing()) {
+            return; // overtaken by newer typing
+        }
+        suggestions.clear();
+        suggestions.addAll(results);
+        if (results.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+        list.setSelectedIndex(0);
+        popup.setPopupSize(Math.max(field.getWidth(), 320), Math.min(results.size(), 8) * 22 + 6);
+        popup.show(field, 0, field.getHeight());
+        field.requestFocusInWindow();
+    }
+
+    private void moveSelection(int delta) {
+        if (!popup.isVisible() || suggestions.isEmpty()) {
+            return;
+        }
+        int index = Math.max(0, Math.min(suggestions.size() - 1, list.getSelectedIndex() + delta));
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+    }
+
+    private void pick(Product product) {
+        latestQuery.incrementAndGet(); // drop any search still in flight
+        debounce.stop();
+        popup.setVisible(false);
+        setFieldText(product.getId() + " - " + product.getName());
+        selected = product;
+        onPick.accept(product);
+    }
+
+    private void setFieldText(String text) {
+        settingText = true;
+        try {
+            field.setText(text);
+        } finally {
+            settingText = false;
+        }
+    }
+}
@@ -1,24 +1,26 @@
 package app.view;
 
-import app.dao.SalesDAO;
+import app.model.BillItem;
 import app.model.Product;
-import app.model.Sale;
+import app.service.CheckoutService;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * RecordSaleWindow.java
  * ---------------------
  * This window allows the user to select a product, enter the quantity sold, and record the sale.
+ * Products are loaded and sales are written in the background.
  */
 public class RecordSaleWindow extends JFrame {
     private JComboBox<Product> productComboBox;
     private JTextField quantityField;
+    private JButton recordButton;
 
-    private final SalesDAO salesDAO;
+    private final CheckoutService checkoutService;
 
     public RecordSaleWindow() {
         setTitle("Record Sale");
@@ -26,8 +28,8 @@ public class RecordSaleWindow extends JFrame {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
-        // Initialize DAO
-        salesDAO = new SalesDAO();
+        // Initialize service
+        checkoutService = new CheckoutService();
 
         // Build UI
         initComponents();
@@ -41,14 +43,14 @@ public class RecordSaleWindow extends JFrame {
     private void initComponents() {
         productComboBox = new JComboBox<>();
         quantityField = new JTextField(10);
-        JButton recordButton = new JButton("Record Sale");
+        recordButton = new JButton("Loading…");
+        recordButton.setEnabled(false);
 
-        // Replace this with actual product loading from your ProductDAO
-        // Dummy example:
-        // productComboBox.addItem(new Product(1, "Pen", "Stationery", 10.0, 50));
-        for (Product p : app.dao.ProductDAO.getAllProducts()) {
-            productComboBox.addItem(p);
-        }
+        UiTask.run(app.dao.ProductDAO::getAllProducts, products -> {
+            products.forEach(productComboBox::addItem);
+            recordButton.setText("Record Sale");
+            recordButton.setEnabled(true);
+        }).cancelWhenClosed(this);
 
         recordButton.addActionListener(this::handleRecordSale);
 
@@ -93,25 +95,33 @@ public class RecordSaleWindow extends JFrame {
             return;
         }
 
-        // Update product quantity in DB
-        selectedProduct.setQuantity(selectedProduct.getQuantity() - quantity);
-        app.dao.ProductDAO.updateProduct(selectedProduct);
-
-        // Prepare Sale object
-        double totalPrice = quantity * selectedProduct.getPrice();
-        Sale sale = new Sale(
-                selectedProduct.getId(),
-                selectedProduct.getName(),
-                quantity,
-                totalPrice,
-                LocalDateTime.now(),
-                selectedProduct.getCategory()
-        );
-
-        // Record sale to DB
-        salesDAO.recordSale(sale);
-
-        JOptionPane.showMessageDialog(this, "Sale recorded successfully.");
-        dispose();
+        recordButton.setEnabled(false);
+        BillItem item = new BillItem(selectedProduct.getId(), selectedProduct.getName(), quantity,
+                selectedProduct.getPrice(), selectedProduct.getCategory());
+        new UiTask<CheckoutService.Result>() {
+            @Override
+            protected CheckoutService.Result doInBackground() {
+                // Stock and ledger row in one transaction; fails if another terminal sold it first
+                return checkoutService.checkout(List.of(item));
+            }
+
+            @Override
+            protected void succeeded(CheckoutService.Result result) {
+                if (!result.committed()) {
+                    JOptionPane.showMessageDialog(RecordSaleWindow.this,
+                            result.shortItem() != null ? "Insufficient stock." : result.message());
+                    recordButton.setEnabled(true);
+                    return;
+                }
+                JOptionPane.showMessageDialog(RecordSaleWindow.this, "Sale recorded successfully.");
+                dispose();
+            }
+
+            @Override
+            protected void failed(Exception ex) {
+                super.failed(ex);
+                recordButton.setEnabled(true);
+            }
+        }.executeInteractive();
     }
 }
\ No newline at end of file
@@ -6,14 +6,16 @@ import app.model.Product;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Window to display low stock products and allow restocking.
+ * Loading and saving run in the background so the window never freezes.
  */
 public class RestockProductsWindow extends JFrame {
 
     private DefaultTableModel tableModel;
+    private LoadingPanel tableArea;
+    private JButton updateBtn;
     private final ProductController controller;
 
     public RestockProductsWindow(ProductController controller) {
@@ -58,7 +60,8 @@ public class RestockProductsWindow extends JFrame {
         table.getTableHeader().setFont(new Font("Segue UI", Font.BOLD, 14));
         table.getTableHeader().setBackground(new Color(200, 230, 250));
         JScrollPane scrollPane = new JScrollPane(table);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        tableArea = new LoadingPanel(scrollPane, "Loading low stock products…");
+        panel.add(tableArea, BorderLayout.CENTER);
 
         // Button
         JPanel btnPanel = getPanel(panel);
@@ -71,7 +74,8 @@ public class RestockProductsWindow extends JFrame {
     }
 
     private JPanel getPanel(JPanel panel) {
-        JButton updateBtn = new JButton("Update Stock");
+        updateBtn = new JButton("Update Stock");
+        updateBtn.setEnabled(false);
         updateBtn.setBackground(new Color(0, 123, 255));
         updateBtn.setForeground(Color.WHITE);
         updateBtn.setFont(new Font("Segue UI", Font.BOLD, 14));
@@ -89,44 +93,66 @@ public class RestockProductsWindow extends JFrame {
      * Loads low stock products into the table.
      */
     private void loadLowStockProducts() {
-        List<Product> lowStockProducts = controller.getLowStockProducts();
-        for (Product p : lowStockProducts) {
-            tableModel.addRow(new Object[]{p.getId(), p.getName(), p.getQuantity()});
-        }
+        UiTask.run(controller::getLowStockProducts, lowStockProducts -> {
+            for (Product p : lowStockProducts) {
+                tableModel.addRow(new Object[]{p.getId(), p.getName(), p.getQuantity()});
+            }
+            tableArea.showContent();
+            updateBtn.setEnabled(true);
+        }).cancelWhenClosed(this);
     }
 
     /**
      * Updates product stock based on table edits.
      */
     private void updateStock() {
-        boolean success = true;
+        int rows = tableModel.getRowCount();
+        int[] ids = new int[rows];
+        int[] quantities = new int[rows];
 
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            int id = (int) tableModel.getValueAt(i, 0);
-            int newQty;
+        for (int i = 0; i < rows; i++) {
+            ids[i] = (int) tableModel.getValueAt(i, 0);
 
             try {
-                newQty = Integer.parseInt(tableModel.getValueAt(i, 2).toString());
-                if (newQty < 0) throw new NumberFormatException();
+                quantities[i] = Integer.parseInt(tableModel.getValueAt(i, 2).toString());
+                if (quantities[i] < 0) throw new NumberFormatException();
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid quantity at row " + (i + 1),
                         "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+        }
 
-            boolean updated = controller.restockProduct(id, newQty);
-            if (!updated) {
-                success = false;
+        updateBtn.setEnabled(false);
+        new UiTask<Boolean>() {
+            @Override
+            protected Boolean doInBackground() {
+                boolean success = true;
+                for (int i = 0; i < ids.length; i++) {
+                    boolean updated = controller.restockProduct(ids[i], quantities[i]);
+                    if (!updated) {
+                        success = false;
+                    }
+                }
+                return success;
             }
-        }
 
-        if (success) {
-            JOptionPane.showMessageDialog(this, "Stock updated successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-            dispose();
-        } else {
-            JOptionPane.showMessageDialog(this, "Some products could not be updated.",
-                    "Update Failed", JOptionPane.ERROR_MESSAGE);
-        }
+            @Override
+            protected void succeeded(Boolean success) {
+                if (success) {
+                    JOptionPane.showMessageDialog(RestockProductsWindow.this, "Stock updated successfully!",
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(RestockProductsWindow.this, "Some products could not be updated.",
+                            "Update Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+
+            @Override
+            protected void finished() {
+                updateBtn.setEnabled(true);
+            }
+        }.execute();
     }
-}
\ No newline at end of file
+}
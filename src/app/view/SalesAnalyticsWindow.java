@@ -1,5 +1,6 @@
 package app.view;
 
+import app.dao.SchemaMigrator;
 import app.model.SalesAnalytics;
 import app.model.Sale;
 import org.jfree.chart.ChartPanel;
@@ -28,12 +29,19 @@ import java.util.Map;
  * - A chart that updates based on dropdown selection
  * <p>
  * Dark theme styling is applied to all components for consistency.
+ * <p>
+ * The window opens immediately with placeholders; the totals are read in
+ * the background and the tables and charts are filled in afterwards. Both
+ * tables come from the trigger-maintained total tables, so opening the
+ * dashboard costs one row per category and product, however long the ledger.
  */
 public class SalesAnalyticsWindow extends JFrame {
 
     private final SalesAnalytics salesAnalytics;
     private JTable categoryTable, productTable;
     private JPanel categoryChartPanel, productChartPanel;
+    private JComboBox<String> categoryChartDropdown, productChartDropdown;
+    private boolean dataLoaded;
 
     public SalesAnalyticsWindow() {
         salesAnalytics = new SalesAnalytics();
@@ -58,7 +66,7 @@ public class SalesAnalyticsWindow extends JFrame {
         JScrollPane categoryScroll = new JScrollPane(categoryTable);
         categoryScroll.setBorder(BorderFactory.createTitledBorder("Sales by Category"));
 
-        JComboBox<String> categoryChartDropdown = createChartTypeDropdown();
+        categoryChartDropdown = createChartTypeDropdown();
         categoryChartDropdown.setMaximumSize(new Dimension(Integer.MAX_VALUE, 25));
         categoryChartDropdown.setAlignmentX(Component.LEFT_ALIGNMENT);
         categoryChartDropdown.addActionListener(e ->
@@ -85,7 +93,7 @@ public class SalesAnalyticsWindow extends JFrame {
         JScrollPane productScroll = new JScrollPane(productTable);
         productScroll.setBorder(BorderFactory.createTitledBorder("Sales by Product"));
 
-        JComboBox<String> productChartDropdown = createChartTypeDropdown();
+        productChartDropdown = createChartTypeDropdown();
         productChartDropdown.setMaximumSize(new Dimension(Integer.MAX_VALUE, 25));
         productChartDropdown.setAlignmentX(Component.LEFT_ALIGNMENT);
         productChartDropdown.addActionListener(e ->
@@ -108,15 +116,26 @@ public class SalesAnalyticsWindow extends JFrame {
         add(topPanel);
         add(bottomPanel);
 
-        // Load initial data
-        loadTableData();
-        updateCategoryChart(categoryChartPanel, "Bar Chart");
-        updateProductChart(productChartPanel, "Bar Chart");
+        // Placeholders until the data arrives
+        showPlaceholder(categoryChartPanel, "Loading sales…");
+        showPlaceholder(productChartPanel, "Loading sales…");
 
         // Optional: Apply dark theme
         applyDarkTheme(getContentPane());
 
         setVisible(true);
+
+        // Load initial data
+        loadTableData();
+    }
+
+    private void showPlaceholder(JPanel panel, String message) {
+        JLabel label = new JLabel(message, SwingConstants.CENTER);
+        label.setForeground(Color.WHITE);
+        panel.removeAll();
+        panel.add(label, BorderLayout.CENTER);
+        panel.revalidate();
+        panel.repaint();
     }
 
     /**
@@ -130,12 +149,50 @@ public class SalesAnalyticsWindow extends JFrame {
     }
 
     /**
-     * Loads sales data into both tables.
+     * Totals shown in the two tables.
+     */
+    private record DashboardData(Map<String, Double> revenueByCategory,
+                                 Map<String, Integer> quantityByCategory,
+                                 List<Sale> productTotals) {
+    }
+
+    /**
+     * Reads the category and product totals in the background, then fills
+     * both tables and draws the charts.
      */
     private void loadTableData() {
+        new UiTask<DashboardData>() {
+            @Override
+            protected DashboardData doInBackground() {
+                return new DashboardData(salesAnalytics.getSalesByCategory(),
+                        salesAnalytics.getSoldQuantityByCategory(),
+                        salesAnalytics.getProductSales());
+            }
+
+            @Override
+            protected void succeeded(DashboardData data) {
+                fillTables(data);
+                dataLoaded = true;
+                updateCategoryChart(categoryChartPanel, (String) categoryChartDropdown.getSelectedItem());
+                updateProductChart(productChartPanel, (String) productChartDropdown.getSelectedItem());
+            }
+
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                showPlaceholder(categoryChartPanel, "❌ Failed to load sales.");
+                showPlaceholder(productChartPanel, "❌ Failed to load sales.");
+            }
+        }.cancelWhenClosed(this).execute();
+    }
+
+    /**
+     * Loads sales data into both tables.
+     */
+    private void fillTables(DashboardData data) {
         // Category Table
-        Map<String, Double> salesByCategory = salesAnalytics.getSalesByCategory();
-        Map<String, Integer> quantityByCategory = salesAnalytics.getSoldQuantitiesByCategory();
+        Map<String, Double> salesByCategory = data.revenueByCategory();
+        Map<String, Integer> quantityByCategory = data.quantityByCategory();
         DefaultTableModel categoryModel = new DefaultTableModel(new String[]{"Category", "Quantity", "Amount"}, 0);
         for (String category : salesByCategory.keySet()) {
             double amount = salesByCategory.get(category);
@@ -145,7 +202,7 @@ public class SalesAnalyticsWindow extends JFrame {
         categoryTable.setModel(categoryModel);
 
         // Product Table
-        List<Sale> productSales = salesAnalytics.getProductSales();
+        List<Sale> productSales = data.productTotals();
         DefaultTableModel productModel = new DefaultTableModel(new String[]{"Product", "Quantity", "Revenue"}, 0);
         for (Sale sale : productSales) {
             productModel.addRow(new Object[]{sale.getProductName(), sale.getQuantitySold(), sale.getTotalPrice()});
@@ -157,6 +214,9 @@ public class SalesAnalyticsWindow extends JFrame {
      * Updates the category chart based on the selected type.
      */
     private void updateCategoryChart(JPanel panel, String type) {
+        if (!dataLoaded) {
+            return; // the chart is drawn once the data arrives
+        }
         JFreeChart chart = salesAnalytics.createChartForCategoryTable(categoryTable, type);
         applyChartTheme(chart.getPlot());
         panel.removeAll();
@@ -169,6 +229,9 @@ public class SalesAnalyticsWindow extends JFrame {
      * Updates the product chart based on the selected type.
      */
     private void updateProductChart(JPanel panel, String type) {
+        if (!dataLoaded) {
+            return;
+        }
         JFreeChart chart = salesAnalytics.createChartForProductTable(productTable, type);
         applyChartTheme(chart.getPlot());
         panel.removeAll();
@@ -249,6 +312,7 @@ public class SalesAnalyticsWindow extends JFrame {
      * Launches the dashboard.
      */
     public static void main(String[] args) {
+        SchemaMigrator.migrate();
         SwingUtilities.invokeLater(SalesAnalyticsWindow::new);
     }
 }
\ No newline at end of file
@@ -4,13 +4,16 @@ import javax.swing.*;
 
 /**
  * SearchProductWindow.java
- * This class represents the UI for searching a product by ID.
- * Currently, a placeholder for future implementation.
+ * This class represents the UI for searching a product by ID or by name.
+ * A numeric input is looked up as an ID; anything else runs a ranked
+ * full-text search over names and categories (see ProductSearchDAO).
  */
 public class SearchProductWindow {
 
+    private static final int MAX_RESULTS = 20;
+
     public void createAndShowGUI() {
-        JFrame frame = new JFrame("Search Product by ID");
+        JFrame frame = new JFrame("Search Product");
         frame.setSize(400, 300);
         frame.setLocationRelativeTo(null); // Center window
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -23,7 +26,7 @@ public class SearchProductWindow {
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // Instruction label
-        JLabel instructionLabel = new JLabel("Enter Product ID:");
+        JLabel instructionLabel = new JLabel("Enter Product ID or name:");
         panel.add(instructionLabel);
 
         // Input field
@@ -46,13 +49,18 @@ public class SearchProductWindow {
         searchButton.addActionListener(e -> {
             String input = idField.getText().trim();
             if (input.isEmpty()) {
-                resultArea.setText("Please enter a Product ID.");
+                resultArea.setText("Please enter a Product ID or name.");
+                return;
+            }
+
+            app.controller.ProductController controller = new app.controller.ProductController();
+            if (!input.chars().allMatch(Character::isDigit)) {
+                showSearchResults(resultArea, input, controller.searchProducts(input, 0, MAX_RESULTS));
                 return;
             }
 
             try {
                 int productId = Integer.parseInt(input);
-                app.controller.ProductController controller = new app.controller.ProductController();
                 app.model.Product product = controller.getProductById(productId);
 
                 if (product != null) {
@@ -74,4 +82,20 @@ public class SearchProductWindow {
         frame.add(panel);
         frame.setVisible(true);
     }
+
+    private static void showSearchResults(JTextArea resultArea, String query, app.dao.ProductSearchDAO.SearchPage page) {
+        if (page.products().isEmpty()) {
+            resultArea.setText("No products match: " + query);
+            return;
+        }
+        StringBuilder text = new StringBuilder(page.fuzzy() ? "No exact match. Closest products:\n" : "Products Found:\n");
+        for (app.model.Product product : page.products()) {
+            text.append(product.getId()).append(" - ").append(product.getName())
+                    .append(" (").append(product.getCategory()).append(")")
+                    .append("  Qty: ").append(product.getQuantity())
+                    .append("  Price: ").append(product.getPrice()).append("\n");
+        }
+        resultArea.setText(text.toString());
+        resultArea.setCaretPosition(0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package app.view;
+
+import app.util.BackgroundExecutor;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * UiTask.java
+ * ---------------------
+ * A piece of blocking work (queries, CSV files) started from the UI.
+ * <p>
+ * Why we need this:
+ * - DAO calls made on the Event Dispatch Thread freeze the window until the
+ *   database answers; SwingWorker helps but runs on its own unbounded pool
+ *   and every window repeated the same get()/try/catch boilerplate
+ * <p>
+ * {@link #doInBackground()} runs on the shared {@link BackgroundExecutor}
+ * ({@link #executeInteractive()} uses its interactive pool);
+ * exactly one of {@link #succeeded}, {@link #failed} or {@link #cancelled}
+ * then runs on the EDT, followed by {@link #finished()}.
+ * {@link #publish(String, int)} reports progress; updates are coalesced, so
+ * a fast loop costs at most one pending EDT event.
+ * <p>
+ * Cancellation is cooperative: {@link #cancel()} never interrupts the thread
+ * (that would break a pooled SQLite connection mid-statement). The work checks
+ * {@link #isCancelled()} or calls {@link #checkCancelled()} between steps, and
+ * the result of a cancelled task is always discarded.
+ *
+ * @param <T> result type
+ */
+public abstract class UiTask<T> {
+
+    private record Progress(String message, int percent) {
+    }
+
+    private final AtomicReference<Progress> pendingProgress = new AtomicReference<>();
+    private volatile boolean cancelled;
+    private boolean started;
+
+    /**
+     * Runs on a background thread. Must not touch Swing components.
+     */
+    protected abstract T doInBackground() throws Exception;
+
+    /**
+     * Called on the EDT with the result unless the task was cancelled or failed.
+     */
+    protected void succeeded(T result) {
+    }
+
+    /**
+     * Called on the EDT if doInBackground threw. Logs by default.
+     */
+    protected void failed(Exception e) {
+        System.out.println("❌ Background task failed: " + e);
+        e.printStackTrace();
+    }
+
+    /**
+     * Called on the EDT instead of succeeded/failed once the task was cancelled.
+     */
+    protected void cancelled() {
+    }
+
+    /**
+     * Called on the EDT last, whatever the outcome (e.g. to re-enable buttons).
+     */
+    protected void finished() {
+    }
+
+    /**
+     * Called on the EDT with the latest published progress.
+     *
+     * @param percent 0-100, or -1 if the total is unknown
+     */
+    protected void progress(String message, int percent) {
+    }
+
+    /**
+     * Reports progress from doInBackground.
+     *
+     * @param percent 0-100, or -1 if the total is unknown
+     */
+    protected final void publish(String message, int percent) {
+        if (pendingProgress.getAndSet(new Progress(message, percent)) == null) {
+            SwingUtilities.invokeLater(() -> {
+                Progress latest = pendingProgress.getAndSet(null);
+                if (latest != null && !cancelled) {
+                    progress(latest.message(), latest.percent());
+                }
+            });
+        }
+    }
+
+    /**
+     * Queues the task on the background executor. A task runs only once.
+     *
+     * @return this task, so callers can keep it for cancel()
+     */
+    public final UiTask<T> execute() {
+        markStarted();
+        BackgroundExecutor.submit(this::runInBackground);
+        return this;
+    }
+
+    /**
+     * Like {@link #execute()}, but on the interactive pool, for short work a
+     * cashier is waiting on (e.g. a checkout) that must not queue behind
+     * imports and exports.
+     *
+     * @return this task, so callers can keep it for cancel()
+     */
+    public final UiTask<T> executeInteractive() {
+        markStarted();
+        BackgroundExecutor.submitInteractive(this::runInBackground);
+        return this;
+    }
+
+    private void markStarted() {
+        if (started) {
+            throw new IllegalStateException("UiTask already started");
+        }
+        started = true;
+    }
+
+    /**
+     * Cancels the task when {@code window} is closed, so closing a window
+     * never leaves its results arriving into disposed components.
+     */
+    public final UiTask<T> cancelWhenClosed(Window window) {
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancel();
+                window.removeWindowListener(this);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Requests cancellation. Safe to call from any thread and more than once.
+     */
+    public final void cancel() {
+        cancelled = true;
+    }
+
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws CancellationException if the task was cancelled; call between
+     * steps of long work.
+     */
+    protected final void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+    }
+
+    private void runInBackground() {
+        T result = null;
+        Exception error = null;
+        try {
+            if (!cancelled) {
+                result = doInBackground();
+            }
+        } catch (CancellationException e) {
+            cancelled = true;
+        } catch (Exception e) {
+            error = e;
+        } catch (Throwable t) {
+            // An Error must still reach failed() and finished(), or buttons stay disabled
+            error = new ExecutionException(t);
+        }
+        complete(result, error);
+    }
+
+    private void complete(T result, Exception error) {
+        SwingUtilities.invokeLater(() -> {
+            try {
+                if (cancelled) {
+                    cancelled();
+                } else if (error != null) {
+                    failed(error);
+                } else {
+                    succeeded(result);
+                }
+            } finally {
+                finished();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code work} in the background and hands its result to
+     * {@code onSuccess} on the EDT. Failures are logged.
+     */
+    public static <T> UiTask<T> run(Callable<T> work, Consumer<T> onSuccess) {
+        return new UiTask<T>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void succeeded(T result) {
+                onSuccess.accept(result);
+            }
+        }.execute();
+    }
+}
@@ -16,13 +16,13 @@ public class UpdateProductWindow {
 
     public void createAndShowGUI() {
         JFrame frame = new JFrame("Update Product");
-        frame.setSize(400, 350);  // Slightly increased height for category
+        frame.setSize(400, 390);  // Slightly increased height for category and barcode
         frame.setLocationRelativeTo(null); // Center window
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setResizable(false);
         frame.setUndecorated(false);
         frame.getRootPane().setWindowDecorationStyle(JRootPane.PLAIN_DIALOG);
-        frame.setLayout(new GridLayout(7, 2, 5, 5)); // 7 rows for new category
+        frame.setLayout(new GridLayout(8, 2, 5, 5)); // 8 rows: category and barcode
 
         // --- Input Fields ---
         JLabel idLabel = new JLabel("Enter Product ID:");
@@ -43,6 +43,9 @@ public class UpdateProductWindow {
         String[] categories = {"Electronics", "Stationery", "Groceries", "Fashion", "Other"};
         JComboBox<String> categoryDropdown = new JComboBox<>(categories); // ✅ Dropdown
 
+        JLabel barcodeLabel = new JLabel("Barcode / SKU:");
+        JTextField barcodeField = new JTextField();
+
         JButton updateButton = new JButton("Update");
 
         // --- Add Components to Frame ---
@@ -52,6 +55,7 @@ public class UpdateProductWindow {
         frame.add(qtyLabel); frame.add(qtyField);
         frame.add(priceLabel); frame.add(priceField);
         frame.add(categoryLabel); frame.add(categoryDropdown); // ✅ Added category field
+        frame.add(barcodeLabel); frame.add(barcodeField);
         frame.add(updateButton); frame.add(new JLabel("")); // Spacer
 
         // --- Hide fields initially ---
@@ -63,6 +67,8 @@ public class UpdateProductWindow {
         priceField.setVisible(false);
         categoryLabel.setVisible(false);         // ✅ Hide category
         categoryDropdown.setVisible(false);      // ✅ Hide dropdown
+        barcodeLabel.setVisible(false);
+        barcodeField.setVisible(false);
         updateButton.setVisible(false);
 
         ProductController controller = new ProductController();
@@ -77,6 +83,7 @@ public class UpdateProductWindow {
                     qtyField.setText(String.valueOf(product.getQuantity()));
                     priceField.setText(String.valueOf(product.getPrice()));
                     categoryDropdown.setSelectedItem(product.getCategory()); // ✅ Set dropdown
+                    barcodeField.setText(product.getBarcode() == null ? "" : product.getBarcode());
 
                     // Show fields
                     nameLabel.setVisible(true);
@@ -87,6 +94,8 @@ public class UpdateProductWindow {
                     priceField.setVisible(true);
                     categoryLabel.setVisible(true);        // ✅ Show category
                     categoryDropdown.setVisible(true);     // ✅ Show dropdown
+                    barcodeLabel.setVisible(true);
+                    barcodeField.setVisible(true);
                     updateButton.setVisible(true);
                 } else {
                     JOptionPane.showMessageDialog(frame, "Product not found.");
@@ -105,7 +114,7 @@ public class UpdateProductWindow {
                 double price = Double.parseDouble(priceField.getText());
                 String category = Objects.requireNonNull(categoryDropdown.getSelectedItem()).toString(); // ✅ Get selected category
 
-                Product updated = new Product(id, name, qty, price, category); // ✅ Updated constructor
+                Product updated = new Product(id, name, qty, price, category, barcodeField.getText()); // ✅ Updated constructor
                 boolean success = controller.updateProduct(updated);
                 if (success) {
                     JOptionPane.showMessageDialog(frame, "Product updated successfully.");
@@ -2,22 +2,31 @@ package app.view;
 
 import app.controller.ProductController;
 import app.model.Product;
+import app.service.ProductFilter;
+import app.util.AppEvents;
+import app.util.CsvReader;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ViewAllProductsWindow extends JFrame {
 
-    private final DefaultTableModel tableModel;
+    // Wait this long after the last keystroke before filtering
+    private static final int FILTER_DEBOUNCE_MS = 150;
+
+    private final PagedTableModel<Product> tableModel;
     private final JTextField filterField;
     private final JComboBox<String> sortBox;
-    private final List<Product> fullProductList; // Store all products before filtering
+    private List<Product> visibleProducts = List.of(); // After filter and sort, in table order
+
+    private ProductFilter productFilter; // null until the products are loaded
+    private final Timer filterTimer;
+    private final LoadingPanel tableArea;
 
     public ViewAllProductsWindow() {
         setTitle("View All Products");
@@ -31,10 +40,7 @@ public class ViewAllProductsWindow extends JFrame {
         // Top panel: Filter and Sort
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         filterField = new JTextField(20);
-        sortBox = new JComboBox<>(new String[]{
-                "Sort: Name (A-Z)", "Sort: Name (Z-A)",
-                "Sort: Quantity (Low to High)", "Sort: Quantity (High to Low)"
-        });
+        sortBox = new JComboBox<>(ProductFilter.SORT_OPTIONS);
 
         topPanel.add(new JLabel("🔍 Filter by Name:"));
         topPanel.add(filterField);
@@ -43,7 +49,13 @@ public class ViewAllProductsWindow extends JFrame {
 
         // Table setup
         String[] columns = {"ID", "Name", "Category", "Quantity", "Price"};
-        tableModel = new DefaultTableModel(columns, 0);
+        tableModel = new PagedTableModel<>(columns, (p, column) -> switch (column) {
+            case 0 -> p.getId();
+            case 1 -> p.getName();
+            case 2 -> p.getCategory();
+            case 3 -> p.getQuantity();
+            default -> p.getPrice();
+        });
         JTable productTable = new JTable(tableModel);
         productTable.setFont(new Font("Arial", Font.PLAIN, 14));
         productTable.setRowHeight(28);
@@ -51,7 +63,8 @@ public class ViewAllProductsWindow extends JFrame {
 
         JScrollPane scrollPane = new JScrollPane(productTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        add(scrollPane, BorderLayout.CENTER);
+        tableArea = new LoadingPanel(scrollPane, "Loading products…");
+        add(tableArea, BorderLayout.CENTER);
 
         // Bottom panel: Export button
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -64,23 +77,29 @@ public class ViewAllProductsWindow extends JFrame {
         bottomPanel.add(exportButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
-        // Load and store original product list
-        ProductController controller = new ProductController();
-        fullProductList = controller.getAllProducts();
+        // Load the products and build the search index in the background
+        loadProducts();
 
-        // Initial population
-        updateTable();
-
-        // Action Listeners for filtering and sorting
+        // Action Listeners for filtering and sorting (typing is debounced)
+        filterTimer = new Timer(FILTER_DEBOUNCE_MS, e -> updateTable());
+        filterTimer.setRepeats(false);
         filterField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { updateTable(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { updateTable(); }
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { updateTable(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { filterTimer.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { filterTimer.restart(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { filterTimer.restart(); }
         });
 
         sortBox.addActionListener(e -> updateTable());
 
         exportButton.addActionListener(e -> exportTableToCSV());
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                filterTimer.stop();
+                tableModel.close();
+            }
+        });
     }
 
     public void createAndShowGUI() {
@@ -88,61 +107,84 @@ public class ViewAllProductsWindow extends JFrame {
     }
 
     /**
-     * Updates the product table based on filter and sort selections.
+     * Loads the products and builds their filter (search index) off the EDT.
      */
-    private void updateTable() {
-        String keyword = filterField.getText().trim().toLowerCase();
-        String sortOption = (String) sortBox.getSelectedItem();
-
-        List<Product> filteredList = fullProductList.stream()
-                .filter(p -> p.getName().toLowerCase().contains(keyword)
-                        || p.getCategory().toLowerCase().contains(keyword))
-                .collect(Collectors.toList());
-
-        // Apply sorting
-        if (sortOption != null) {
-            switch (sortOption) {
-                case "Sort: Name (A-Z)" ->
-                        filteredList.sort(Comparator.comparing(Product::getName));
-                case "Sort: Name (Z-A)" ->
-                        filteredList.sort(Comparator.comparing(Product::getName).reversed());
-                case "Sort: Quantity (Low to High)" ->
-                        filteredList.sort(Comparator.comparingInt(Product::getQuantity));
-                case "Sort: Quantity (High to Low)" ->
-                        filteredList.sort(Comparator.comparingInt(Product::getQuantity).reversed());
+    private void loadProducts() {
+        new UiTask<ProductFilter>() {
+            @Override
+            protected ProductFilter doInBackground() {
+                // Load and store original product list
+                ProductController controller = new ProductController();
+                List<Product> products = controller.getAllProducts();
+                checkCancelled();
+                return new ProductFilter(products);
+            }
+
+            @Override
+            protected void succeeded(ProductFilter filter) {
+                productFilter = filter;
+                updateTable();
+                tableArea.showContent();
             }
-        }
 
-        // Update table
-        tableModel.setRowCount(0); // Clear table
-        for (Product p : filteredList) {
-            tableModel.addRow(new Object[]{
-                    p.getId(),
-                    p.getName(),
-                    p.getCategory(),
-                    p.getQuantity(),
-                    p.getPrice()
-            });
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                tableArea.showMessage("❌ Failed to load products.");
+            }
+        }.cancelWhenClosed(this).execute();
+    }
+
+    /**
+     * Updates the product table based on filter and sort selections.
+     * Matches come from the trigram index; the result is then read off a
+     * precomputed ordering for the selected sort, so nothing is re-sorted.
+     */
+    private void updateTable() {
+        if (productFilter == null) {
+            return; // still loading; the table is filled once the products arrive
         }
+        // The model shows pages of this view without copying products
+        visibleProducts = productFilter.filter(filterField.getText().trim(), (String) sortBox.getSelectedItem());
+        tableModel.setSource(PagedTableModel.listSource(visibleProducts));
     }
 
     /**
-     * Exports the table data to a CSV file.
+     * Exports the table data to a CSV file in the background.
      */
     private void exportTableToCSV() {
-        try (FileWriter writer = new FileWriter("products.csv")) {
-            writer.append("ID,Name,Quantity,Price\n");
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                writer.append(String.format("%s,%s,%s,%s\n",
-                        tableModel.getValueAt(i, 0),
-                        tableModel.getValueAt(i, 1),
-                        tableModel.getValueAt(i, 2),
-                        tableModel.getValueAt(i, 3)));
+        List<Product> rows = visibleProducts; // the view is never modified, only replaced
+        new UiTask<Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                AppEvents.CsvTransferEvent event = AppEvents.CsvTransferEvent.begin("export", "products.csv");
+                try (FileWriter writer = new FileWriter("products.csv")) {
+                    writer.append("ID,Name,Quantity,Price\n");
+                    for (Product p : rows) {
+                        writer.append(String.format("%s,%s,%s,%s\n",
+                                p.getId(),
+                                CsvReader.escape(p.getName()),
+                                p.getQuantity(),
+                                p.getPrice()));
+                    }
+                } catch (IOException e) {
+                    event.finish(0, 0, "failed");
+                    throw e;
+                }
+                event.finish(rows.size(), 0, "completed");
+                return null;
             }
-            JOptionPane.showMessageDialog(this, "✅ Products exported to products.csv", "Export Successful", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "❌ Error exporting to CSV.", "Export Failed", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+
+            @Override
+            protected void succeeded(Void result) {
+                JOptionPane.showMessageDialog(ViewAllProductsWindow.this, "✅ Products exported to products.csv", "Export Successful", JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            @Override
+            protected void failed(Exception e) {
+                JOptionPane.showMessageDialog(ViewAllProductsWindow.this, "❌ Error exporting to CSV.", "Export Failed", JOptionPane.ERROR_MESSAGE);
+                e.printStackTrace();
+            }
+        }.execute();
     }
 }
@@ -2,28 +2,51 @@ package app.view;
 
 import app.dao.SalesDAO;
 import app.model.Sale;
+import app.util.AnalyticsSnapshot;
+import app.util.AppEvents;
+import app.util.CsvReader;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * ViewSalesWindow.java
  * ---------------------
  * Displays a table showing all recorded sales from the database,
  * with options to filter by category and date range, and export filtered data.
+ * <p>
+ * The table is virtual (PagedTableModel): filters run in SQL and only the
+ * pages being looked at are loaded, so the window opens instantly however
+ * large the ledger is. The category list and CSV export also run in the
+ * background.
  */
 public class ViewSalesWindow extends JFrame {
 
-    private final DefaultTableModel tableModel;
+    private final PagedTableModel<Sale> tableModel;
     private final JComboBox<String> categoryComboBox;
     private final JTextField fromDateField;
     private final JTextField toDateField;
-    private final List<Sale> allSales;
+    private final JButton exportButton;
+    private final JLabel statusLabel = new JLabel(" ");
+    private final SalesDAO salesDAO = new SalesDAO();
+    private SalesDAO.SaleFilter currentFilter = SalesDAO.SaleFilter.ALL;
+    private static final DateTimeFormatter SNAPSHOT_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
 
     public ViewSalesWindow() {
         setTitle("Sales History");
@@ -48,7 +71,7 @@ public class ViewSalesWindow extends JFrame {
         topPanel.add(toDateField);
 
         JButton filterButton = new JButton("Apply Filters");
-        JButton exportButton = new JButton("Export Filtered to CSV");
+        exportButton = new JButton("Export Filtered to CSV");
 
         topPanel.add(filterButton);
         topPanel.add(exportButton);
@@ -57,24 +80,34 @@ public class ViewSalesWindow extends JFrame {
 
         // Table setup
         String[] columnNames = {"Product ID", "Product Name", "Quantity Sold", "Total Price", "Date-Time", "Category"};
-        tableModel = new DefaultTableModel(columnNames, 0);
+        tableModel = new PagedTableModel<>(columnNames, (sale, column) -> switch (column) {
+            case 0 -> sale.getProductId();
+            case 1 -> sale.getProductName();
+            case 2 -> sale.getQuantitySold();
+            case 3 -> sale.getTotalPrice();
+            case 4 -> sale.getSaleDateTime().toString();
+            default -> sale.getCategory();
+        });
         JTable table = new JTable(tableModel);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
-        // Load all sales data
-        SalesDAO salesDAO = new SalesDAO();
-        allSales = salesDAO.getAllSales();
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        add(statusLabel, BorderLayout.SOUTH);
 
         // Populate category filter dropdown
-        for (Sale sale : allSales) {
-            if (sale.getCategory() != null && !sale.getCategory().isEmpty()
-                    && ((DefaultComboBoxModel<String>) categoryComboBox.getModel()).getIndexOf(sale.getCategory()) == -1) {
-                categoryComboBox.addItem(sale.getCategory());
-            }
-        }
+        UiTask.run(salesDAO::getSaleCategories, categories -> categories.forEach(categoryComboBox::addItem))
+                .cancelWhenClosed(this);
 
         // Show all data initially
-        updateTable(allSales);
+        tableModel.setSource(new SalesPageSource(salesDAO, currentFilter));
+        showDataAge();
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                tableModel.close();
+            }
+        });
 
         // Filter button logic
         filterButton.addActionListener(e -> applyFilters());
@@ -86,84 +119,161 @@ public class ViewSalesWindow extends JFrame {
     }
 
     /**
-     * Applies category and date range filters to the sales list and updates the table.
+     * Applies category and date range filters and reloads the table.
+     * A date that cannot be parsed is ignored.
      */
     private void applyFilters() {
         String selectedCategory = (String) categoryComboBox.getSelectedItem();
-        String fromDateStr = fromDateField.getText().trim();
-        String toDateStr = toDateField.getText().trim();
-
-        List<Sale> filtered = allSales.stream()
-                .filter(sale -> {
-                    assert selectedCategory != null;
-                    boolean matchesCategory = selectedCategory.equals("All") || selectedCategory.equals(sale.getCategory());
-
-                    boolean matchesDate = true;
-                    try {
-                        LocalDateTime dateTime = sale.getSaleDateTime();
-                        if (!fromDateStr.isEmpty()) {
-                            LocalDate from = LocalDate.parse(fromDateStr);
-                            matchesDate &= !dateTime.toLocalDate().isBefore(from);
-                        }
-                        if (!toDateStr.isEmpty()) {
-                            LocalDate to = LocalDate.parse(toDateStr);
-                            matchesDate &= !dateTime.toLocalDate().isAfter(to);
-                        }
-                    } catch (Exception ignored) {
-                        // Invalid format ignored; show all
-                    }
+        String category = selectedCategory == null || selectedCategory.equals("All") ? null : selectedCategory;
 
-                    return matchesCategory && matchesDate;
-                })
-                .collect(Collectors.toList());
-
-        updateTable(filtered);
+        currentFilter = new SalesDAO.SaleFilter(category,
+                parseDate(fromDateField.getText().trim()),
+                parseDate(toDateField.getText().trim()));
+        tableModel.setSource(new SalesPageSource(salesDAO, currentFilter));
+        showDataAge();
     }
 
     /**
-     * Updates the JTable with the given list of sales.
+     * Tells the user when the rows come from the analytics snapshot, which
+     * can be a few minutes behind the tills.
      */
-    private void updateTable(List<Sale> salesList) {
-        tableModel.setRowCount(0); // Clear existing rows
-        for (Sale sale : salesList) {
-            tableModel.addRow(new Object[]{
-                    sale.getProductId(),
-                    sale.getProductName(),
-                    sale.getQuantitySold(),
-                    sale.getTotalPrice(),
-                    sale.getSaleDateTime().toString(),
-                    sale.getCategory()
-            });
+    private void showDataAge() {
+        LocalDateTime takenAt = AnalyticsSnapshot.getSnapshotTime();
+        statusLabel.setText(takenAt == null ? " " : "ℹ️ Sales as of " + takenAt.format(SNAPSHOT_TIME_FORMAT));
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException ignored) {
+            return null; // Invalid format ignored; not filtered
         }
     }
 
     /**
-     * Exports currently visible (filtered) rows to a CSV file.
+     * Exports the rows matching the current filter to a CSV file.
+     * Rows are streamed from the database rather than read from the table,
+     * which only holds the pages on screen.
      */
     private void exportFilteredSalesToCSV() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Save Filtered Sales CSV");
         int userSelection = fileChooser.showSaveDialog(this);
 
-        if (userSelection == JFileChooser.APPROVE_OPTION) {
-            try (java.io.FileWriter writer = new java.io.FileWriter(fileChooser.getSelectedFile())) {
-                writer.write("Product ID,Product Name,Quantity Sold,Total Price,Date-Time,Category\n");
-
-                for (int i = 0; i < tableModel.getRowCount(); i++) {
-                    writer.write(String.format("%s,%s,%s,%.2f,%s,%s\n",
-                            tableModel.getValueAt(i, 0),
-                            tableModel.getValueAt(i, 1),
-                            tableModel.getValueAt(i, 2),
-                            Double.parseDouble(tableModel.getValueAt(i, 3).toString()),
-                            tableModel.getValueAt(i, 4),
-                            tableModel.getValueAt(i, 5)));
+        if (userSelection != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        SalesDAO.SaleFilter filter = currentFilter;
+        exportButton.setEnabled(false);
+        statusLabel.setText("Exporting...");
+
+        new UiTask<Integer>() {
+            @Override
+            protected Integer doInBackground() throws IOException, SQLException {
+                int[] written = {0};
+                AppEvents.CsvTransferEvent event = AppEvents.CsvTransferEvent.begin("export", file.getPath());
+                String outcome = "failed";
+                try {
+                    try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+                        writer.write("Product ID,Product Name,Quantity Sold,Total Price,Date-Time,Category\n");
+
+                        salesDAO.streamSales(filter, SalesDAO.DEFAULT_FETCH_SIZE, sale -> {
+                            checkCancelled();
+                            try {
+                                writer.write(String.format("%s,%s,%s,%.2f,%s,%s\n",
+                                        sale.getProductId(),
+                                        CsvReader.escape(sale.getProductName()),
+                                        sale.getQuantitySold(),
+                                        sale.getTotalPrice(),
+                                        sale.getSaleDateTime(),
+                                        CsvReader.escape(sale.getCategory())));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            if (++written[0] % 1000 == 0) {
+                                publish(String.format("Exporting... %,d rows written", written[0]), -1);
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    outcome = "completed";
+                } catch (CancellationException e) {
+                    outcome = "cancelled";
+                    throw e;
+                } finally {
+                    event.finish(written[0], 0, outcome);
                 }
+                return written[0];
+            }
+
+            @Override
+            protected void progress(String message, int percent) {
+                statusLabel.setText(message);
+            }
 
-                JOptionPane.showMessageDialog(this, "✅ Export successful!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "❌ Failed to export CSV.");
-                e.printStackTrace();
+            @Override
+            protected void succeeded(Integer rows) {
+                statusLabel.setText(String.format("✅ Exported %,d rows.", rows));
+                JOptionPane.showMessageDialog(ViewSalesWindow.this, "✅ Export successful!");
+            }
+
+            @Override
+            protected void failed(Exception e) {
+                super.failed(e);
+                file.delete(); // incomplete export
+                showDataAge();
+                JOptionPane.showMessageDialog(ViewSalesWindow.this, "❌ Failed to export CSV.");
+            }
+
+            @Override
+            protected void cancelled() {
+                file.delete(); // partial export
+            }
+
+            @Override
+            protected void finished() {
+                exportButton.setEnabled(true);
+            }
+        }.cancelWhenClosed(this).execute();
+    }
+
+    /**
+     * Loads table pages with keyset queries. Remembers the last sale_id of
+     * every page it has loaded, so scrolling on to the next page is a pure
+     * index seek; a jump to an unvisited position first looks up its key.
+     */
+    private static class SalesPageSource implements PagedTableModel.PageSource<Sale> {
+        private final SalesDAO dao;
+        private final SalesDAO.SaleFilter filter;
+        private final Map<Integer, Long> keyBeforeOffset = new HashMap<>();
+
+        SalesPageSource(SalesDAO dao, SalesDAO.SaleFilter filter) {
+            this.dao = dao;
+            this.filter = filter;
+            keyBeforeOffset.put(0, 0L);
+        }
+
+        @Override
+        public int count() {
+            return dao.countSales(filter);
+        }
+
+        @Override
+        public List<Sale> load(int offset, int limit) {
+            Long after = keyBeforeOffset.get(offset);
+            if (after == null) {
+                after = dao.getSaleIdBefore(filter, offset);
+            }
+            List<Sale> rows = dao.getSalesPage(filter, after, limit);
+            if (!rows.isEmpty()) {
+                keyBeforeOffset.put(offset + rows.size(), rows.get(rows.size() - 1).getSaleId());
             }
+            return rows;
         }
     }
-}
\ No newline at end of file
+}
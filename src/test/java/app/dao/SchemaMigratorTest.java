@@ -0,0 +1,109 @@
+package app.dao;
+
+import app.util.DBUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private static final int LATEST_VERSION = 6;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void closeDatabase() {
+        DBUtil.shutdown();
+    }
+
+    @Test
+    void createsTheSchemaInAnEmptyDatabase() throws SQLException {
+        DBUtil.useDatabase(url());
+
+        assertTrue(SchemaMigrator.migrate());
+
+        assertEquals(LATEST_VERSION, SchemaMigrator.getSchemaVersion());
+        assertEquals(LATEST_VERSION, count("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(1, count("SELECT COUNT(*) FROM users WHERE username = 'admin' AND role = 'admin'"));
+    }
+
+    @Test
+    void upgradesALegacyDatabaseAndItsSalesLedger() throws SQLException {
+        String soldAt = "2025-05-07T14:30:00";
+        try (Connection conn = DriverManager.getConnection(url());
+             Statement stmt = conn.createStatement()) {
+            // Layout written by the first releases: no barcode, sales keyed by product_id
+            stmt.execute("""
+                    CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE NOT NULL,
+                        password TEXT NOT NULL, salt TEXT NOT NULL, role TEXT NOT NULL DEFAULT 'user')""");
+            stmt.execute("""
+                    CREATE TABLE products (id INTEGER PRIMARY KEY, name TEXT NOT NULL,
+                        quantity INTEGER NOT NULL, price REAL NOT NULL, category TEXT NOT NULL)""");
+            stmt.execute("""
+                    CREATE TABLE sales (product_id INTEGER PRIMARY KEY, product_name TEXT, quantity_sold INTEGER,
+                        total_price REAL, sale_datetime TEXT, category TEXT)""");
+            stmt.execute("INSERT INTO products VALUES (1, 'Pen', 10, 1.5, 'Stationery'), (2, 'Tea', 5, 3.0, 'Food')");
+            stmt.execute("INSERT INTO sales VALUES (1, 'Pen', 4, 6.0, '" + soldAt + "', 'Stationery'),"
+                    + " (2, 'Tea', 2, 6.0, '2025-05-08T09:00:00', 'Food')");
+        }
+        DBUtil.useDatabase(url());
+
+        assertTrue(SchemaMigrator.migrate());
+
+        assertEquals(LATEST_VERSION, SchemaMigrator.getSchemaVersion());
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name = 'sales_legacy'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM sales WHERE sale_id IS NOT NULL"));
+        long expectedTs = LocalDateTime.parse(soldAt).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(1, count("SELECT COUNT(*) FROM sales WHERE product_id = 1 AND sale_ts = " + expectedTs));
+        assertEquals(4, count("SELECT quantity FROM sales_category_totals WHERE category = 'Stationery'"));
+        assertEquals(2, count("SELECT quantity FROM sales_product_totals WHERE product_id = 2"));
+        assertEquals(1, count("SELECT COUNT(*) FROM pragma_table_info('products') WHERE name = 'barcode'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM products"));
+
+        // Running again (as the next start would) applies nothing
+        DBUtil.useDatabase(url());
+        assertTrue(SchemaMigrator.migrate());
+        assertEquals(LATEST_VERSION, count("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(2, count("SELECT COUNT(*) FROM sales"));
+        assertEquals(1, count("SELECT COUNT(*) FROM users"));
+    }
+
+    @Test
+    void failedSeedLeavesTheVersionUnrecorded() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url());
+             Statement stmt = conn.createStatement()) {
+            // A users table the default admin cannot be inserted into
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL)");
+        }
+        DBUtil.useDatabase(url());
+
+        assertFalse(SchemaMigrator.migrate());
+
+        assertEquals(0, SchemaMigrator.getSchemaVersion());
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name = 'products'"));
+    }
+
+    private String url() {
+        return "jdbc:sqlite:" + dir.resolve("legacy.db");
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = DBUtil.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+}
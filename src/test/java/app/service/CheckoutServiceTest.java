@@ -0,0 +1,95 @@
+package app.service;
+
+import app.dao.ProductDAO;
+import app.dao.SchemaMigrator;
+import app.model.BillItem;
+import app.model.Product;
+import app.util.DBUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductDAO productDAO = new ProductDAO();
+    private final CheckoutService checkout = new CheckoutService();
+
+    @BeforeEach
+    void createDatabase() {
+        DBUtil.useDatabase("jdbc:sqlite:" + dir.resolve("test.db"));
+        assertTrue(SchemaMigrator.migrate());
+        productDAO.addProduct(new Product(1, "Pen", 10, 1.5, "Stationery"));
+        productDAO.addProduct(new Product(2, "Ink", 3, 4.0, "Stationery"));
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        DBUtil.shutdown();
+    }
+
+    @Test
+    void committedBillReducesStockAndRecordsSales() throws SQLException {
+        CheckoutService.Result result = checkout.checkout(List.of(
+                new BillItem(1, "Pen", 4, 1.5, "Stationery"),
+                new BillItem(2, "Ink", 3, 4.0, "Stationery")));
+
+        assertTrue(result.committed(), result.message());
+        assertEquals(6, stockInDatabase(1));
+        assertEquals(0, stockInDatabase(2));
+        assertEquals(6, productDAO.getProductById(1).getQuantity()); // cache refreshed too
+        assertEquals(2, count("SELECT COUNT(*) FROM sales"));
+        assertEquals(7, count("SELECT quantity FROM sales_category_totals WHERE category = 'Stationery'"));
+    }
+
+    @Test
+    void oversoldLineRollsBackTheWholeBill() throws SQLException {
+        CheckoutService.Result result = checkout.checkout(List.of(
+                new BillItem(1, "Pen", 4, 1.5, "Stationery"),   // fits, and is decremented first
+                new BillItem(2, "Ink", 5, 4.0, "Stationery")));  // only 3 in stock
+
+        assertFalse(result.committed());
+        assertEquals(2, result.shortItem().getProductId());
+        assertEquals(10, stockInDatabase(1), "the first line must be rolled back");
+        assertEquals(3, stockInDatabase(2));
+        assertEquals(10, productDAO.getProductById(1).getQuantity());
+        assertEquals(0, count("SELECT COUNT(*) FROM sales"));
+        assertEquals(0, count("SELECT COUNT(*) FROM sales_product_totals"));
+    }
+
+    @Test
+    void linesForTheSameProductAreCheckedTogether() throws SQLException {
+        // Each line fits on its own, together they need 4 of 3
+        CheckoutService.Result result = checkout.checkout(List.of(
+                new BillItem(2, "Ink", 2, 4.0, "Stationery"),
+                new BillItem(2, "Ink", 2, 4.0, "Stationery")));
+
+        assertFalse(result.committed());
+        assertEquals(3, stockInDatabase(2));
+        assertEquals(0, count("SELECT COUNT(*) FROM sales"));
+    }
+
+    private static int stockInDatabase(int productId) throws SQLException {
+        return count("SELECT quantity FROM products WHERE id = " + productId);
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = DBUtil.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+}
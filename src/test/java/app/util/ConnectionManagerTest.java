@@ -0,0 +1,122 @@
+package app.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionManagerTest {
+
+    private static final int BUSY_MS = 200;
+
+    @TempDir
+    Path dir;
+
+    private ConnectionManager manager;
+
+    @BeforeEach
+    void open() throws SQLException {
+        manager = new ConnectionManager("jdbc:sqlite:" + dir.resolve("test.db"), 2, 1024, 0, BUSY_MS, 16);
+        try (Connection conn = manager.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+        }
+    }
+
+    @AfterEach
+    void close() {
+        manager.close();
+    }
+
+    @Test
+    void nestedWriterBorrowJoinsTheOuterTransaction() throws SQLException {
+        try (Connection outer = manager.getWriteConnection()) {
+            outer.setAutoCommit(false);
+            try (Statement stmt = outer.createStatement()) {
+                stmt.execute("INSERT INTO items (name) VALUES ('outer')");
+            }
+
+            try (Connection inner = manager.getWriteConnection();
+                 Statement stmt = inner.createStatement()) {
+                assertFalse(inner.getAutoCommit(), "inner borrow should see the outer transaction");
+                stmt.execute("INSERT INTO items (name) VALUES ('inner')");
+            }
+
+            // Closing the inner borrow must neither commit nor roll back
+            assertFalse(outer.getAutoCommit());
+            assertEquals(2, count(outer));
+            outer.commit();
+        }
+
+        try (Connection reader = manager.getReadConnection()) {
+            assertEquals(2, count(reader));
+        }
+    }
+
+    @Test
+    void releasingTheWriterRollsBackAnOpenTransaction() throws SQLException {
+        try (Connection conn = manager.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO items (name) VALUES ('forgotten')");
+        }
+
+        try (Connection conn = manager.getWriteConnection()) {
+            assertTrue(conn.getAutoCommit());
+            assertEquals(0, count(conn));
+        }
+    }
+
+    @Test
+    void waitingForABusyWriterTimesOut() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = other.submit(() -> {
+                try (Connection conn = manager.getWriteConnection()) {
+                    held.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, manager::getWriteConnection);
+            long waitedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(e.getMessage().startsWith("Database is busy"), e.getMessage());
+            assertTrue(waitedMs >= BUSY_MS - 20, "gave up after " + waitedMs + " ms");
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            try (Connection conn = manager.getWriteConnection()) {
+                assertNotNull(conn); // free again once the holder is done
+            }
+        } finally {
+            release.countDown();
+            other.shutdownNow();
+        }
+    }
+
+    private static int count(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void escapedFieldsReadBackUnchanged() throws IOException {
+        String[] names = {"plain", "comma, inside", "say \"hi\"", "two\nlines", "crlf\r\nline", "", "15\" screen"};
+        StringBuilder csv = new StringBuilder("name,qty\n");
+        for (int i = 0; i < names.length; i++) {
+            csv.append(CsvReader.escape(names[i])).append(',').append(i).append('\n');
+        }
+        Path file = write(csv.toString());
+
+        List<String> read = new ArrayList<>();
+        CsvReader.read(file, true, row -> row.getString(0), chunk -> read.addAll(chunk.rows()));
+
+        assertEquals(List.of(names), read);
+        assertEquals("", CsvReader.escape(null));
+    }
+
+    @Test
+    void smallChunksParseLikeOneChunk() throws IOException {
+        // Quoted fields with commas and line breaks, and stray quotes in
+        // unquoted fields, spread so chunk boundaries land inside all of them
+        StringBuilder csv = new StringBuilder("id,name,note\n");
+        for (int i = 0; i < 3000; i++) {
+            switch (i % 6) {
+                case 0 -> csv.append(i).append(",\"multi\nline, ").append("x".repeat(i % 97)).append("\",ok\n");
+                case 1 -> csv.append(i).append(",Item ").append(i % 40).append("\" screen,stray\n");
+                case 2 -> csv.append(i).append(",\"quoted \"\"word\"\"\",").append("y".repeat(i % 53)).append('\n');
+                case 3 -> csv.append(i).append(",a\"b\"c,\"\"\"\"\n");
+                case 4 -> csv.append(i).append(",\"bad\"x,reject me\n");
+                default -> csv.append(i).append(",\"line\r\nbreak\",").append("\"z\nz\"").append("\r\n");
+            }
+        }
+        Path file = write(csv.toString());
+
+        Result whole = read(file, Integer.MAX_VALUE);
+        Result chunked = read(file, 1024);
+
+        assertEquals(2500, whole.rows().size());
+        assertEquals(500, whole.rejected().size());
+        assertEquals(whole.rows(), chunked.rows());
+        assertEquals(whole.rejected(), chunked.rejected());
+        assertTrue(chunked.chunks() > 10, "expected many chunks, got " + chunked.chunks());
+
+        assertEquals("1|Item 1\" screen|stray", whole.rows().get(1));
+        assertEquals("3|a\"b\"c|\"", whole.rows().get(3));
+        assertEquals("Unexpected character after closing quote", whole.rejected().get(0).reason());
+    }
+
+    @Test
+    void rejectedRowsKeepTheirLineNumbers() throws IOException {
+        Path file = write("id,name\n1,\"two\nlines\"\n2,\"bad\"x\n3,ok\n");
+
+        Result result = read(file, 1024);
+
+        assertEquals(List.of("1|two\nlines", "3|ok"), result.rows());
+        assertEquals(1, result.rejected().size());
+        assertEquals(4, result.rejected().get(0).lineNumber());
+    }
+
+    private record Result(List<String> rows, List<CsvReader.Rejected> rejected, int chunks) {
+    }
+
+    private static Result read(Path file, int chunkBytes) throws IOException {
+        List<String> rows = new ArrayList<>();
+        List<CsvReader.Rejected> rejected = new ArrayList<>();
+        int[] chunks = {0};
+        CsvReader.read(file, true, chunkBytes, row -> {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < row.size(); i++) {
+                sb.append(i == 0 ? "" : "|").append(row.getString(i));
+            }
+            return sb.toString();
+        }, chunk -> {
+            rows.addAll(chunk.rows());
+            rejected.addAll(chunk.rejected());
+            chunks[0]++;
+        });
+        return new Result(rows, rejected, chunks[0]);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("test.csv"), content);
+    }
+}
@@ -0,0 +1,90 @@
+package app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIndexTest {
+
+    @Test
+    void slotsAreDenseAndInInsertionOrder() {
+        IntIndex index = new IntIndex(4);
+        for (int key = 0; key < 100; key++) {
+            assertEquals(key, index.getOrAdd(key * 31));
+        }
+        assertEquals(100, index.size());
+        assertEquals(42, index.getOrAdd(42 * 31));
+        assertEquals(-1, index.get(7));
+        assertEquals(31 * 99, index.keysBySlot()[99]);
+    }
+
+    @Test
+    void removalKeepsCollidingKeysReachable() {
+        // All five keys hash to bucket 3 of the 16-bucket table, so they share one probe run
+        IntIndex index = new IntIndex(8);
+        int[] keys = {8, 40, 41, 42, 74};
+        for (int key : keys) {
+            index.getOrAdd(key);
+        }
+
+        // Removing from the head and middle of the run shifts later keys back
+        assertEquals(0, index.remove(keys[0]));
+        assertEquals(-1, index.remove(keys[0]));
+        index.remove(keys[2]);
+
+        assertEquals(3, index.size());
+        for (int key : new int[]{keys[1], keys[3], keys[4]}) {
+            int slot = index.get(key);
+            assertTrue(slot >= 0 && slot < 3, "key " + key + " lost after removal");
+            assertEquals(key, index.keysBySlot()[slot]);
+        }
+        assertEquals(-1, index.get(keys[2]));
+    }
+
+    @Test
+    void removalMovesTheLastSlotIntoTheGap() {
+        IntIndex index = new IntIndex();
+        index.getOrAdd(10);
+        index.getOrAdd(20);
+        index.getOrAdd(30);
+
+        assertEquals(0, index.remove(10));
+
+        assertEquals(0, index.get(30));
+        assertEquals(1, index.get(20));
+        assertArrayEquals(new int[]{30, 20}, index.keysBySlot());
+        assertEquals(2, index.getOrAdd(40));
+    }
+
+    @Test
+    void mapMatchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        IntObjectMap<Integer> map = new IntObjectMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, i), map.put(key, i));
+                case 1 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        List<Integer> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected.size(), values.size());
+        assertTrue(values.containsAll(expected.values()));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+}